@@ -0,0 +1,65 @@
+package ru.practicum.shareit.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BookingClient;
+import ru.practicum.shareit.client.ItemClient;
+import ru.practicum.shareit.client.UpstreamPolicies;
+import ru.practicum.shareit.config.UpstreamProperties;
+
+import java.util.concurrent.TimeUnit;
+
+// Сборка запроса в шлюзе: шаблон URI, заголовки, политика upstream и проброс заголовков ответа.
+// Ответ приходит из памяти, время сети в замер не входит
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BaseClientBenchmark {
+    private static final String SERVER_URL = "http://localhost:9090";
+
+    private BookingClient bookingClient;
+    private ItemClient itemClient;
+
+    @Setup
+    public void setUp() {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(BaseClientBenchmark::respond);
+        UpstreamPolicies policies = new UpstreamPolicies(new UpstreamProperties(), new SimpleMeterRegistry());
+        bookingClient = new BookingClient(SERVER_URL, builder, policies);
+        itemClient = new ItemClient(SERVER_URL, builder, policies);
+    }
+
+    private static Mono<ClientResponse> respond(ClientRequest request) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "\"" + request.url().getRawPath().length() + "\"")
+                .build());
+    }
+
+    @Benchmark
+    public ResponseEntity<Flux<DataBuffer>> getById() {
+        return bookingClient.getById(1L, 42L).block();
+    }
+
+    @Benchmark
+    public ResponseEntity<Flux<DataBuffer>> getWithQueryParameter() {
+        return bookingClient.getAllByOwner(1L, "WAITING").block();
+    }
+
+    @Benchmark
+    public ResponseEntity<Flux<DataBuffer>> searchWithEncodedText() {
+        return itemClient.search("аккумуляторная дрель").block();
+    }
+}
@@ -0,0 +1,184 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+// Наполняет схему ShareIt данными продакшен-формы пакетами JDBC: вещи на владельца, бронирования и комментарии
+// на вещь распределены по степенному закону, бронирования охватывают прошлый год и три месяца вперёд.
+// Один и тот же seed даёт одни и те же данные.
+// Запуск на любой базе: java -cp benchmarks.jar ru.practicum.shareit.benchmark.DataGenerator
+// jdbc:postgresql://localhost:5432/shareit postgres postgres 3000000
+@Slf4j
+public class DataGenerator {
+    static final String[] NOUNS = {"Дрель", "Перфоратор", "Лестница", "Палатка", "Велосипед", "Шуруповёрт",
+            "Болгарка", "Газонокосилка", "Проектор", "Пила", "Байдарка", "Мангал", "Коляска", "Генератор", "Сапборд"};
+    private static final String[] ADJECTIVES = {"аккумуляторная", "складная", "профессиональный", "детская",
+            "туристическая", "компактный", "мощная", "новая", "почти новый", "садовая"};
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbc;
+    private final SplittableRandom random;
+    private final LocalDateTime now;
+
+    public DataGenerator(DataSource dataSource, long seed, LocalDateTime now) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.random = new SplittableRandom(seed);
+        this.now = now.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Использование: DataGenerator <jdbc-url> <user> <password> [bookings]");
+            System.exit(1);
+        }
+        DataSource dataSource = new DriverManagerDataSource(args[0], args[1], args[2]);
+        int bookings = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        new DataGenerator(dataSource, 42, LocalDateTime.now()).generate(Scale.ofBookings(bookings));
+    }
+
+    // true, если в таблицах уже ровно этот масштаб и данные прошлого прогона можно переиспользовать
+    public boolean isGenerated(Scale scale) {
+        Long users = jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        Long bookings = jdbc.queryForObject("SELECT COUNT(*) FROM bookings", Long.class);
+        return users != null && users == scale.users() && bookings != null && bookings == scale.bookings();
+    }
+
+    public void generate(Scale scale) {
+        long started = System.nanoTime();
+        for (String table : new String[]{"comments", "bookings", "items", "requests", "users"}) {
+            jdbc.update("DELETE FROM " + table);
+        }
+
+        insert("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", scale.users(), (ps, id) -> {
+            ps.setString(2, "Пользователь " + id);
+            ps.setString(3, "user" + id + "@shareit.test");
+        });
+
+        insert("INSERT INTO requests (id, description, requestor_id, created) VALUES (?, ?, ?, ?)", scale.requests(),
+                (ps, id) -> {
+                    ps.setString(2, "Нужна " + pick(NOUNS).toLowerCase() + " на выходные");
+                    ps.setLong(3, uniform(scale.users()));
+                    ps.setTimestamp(4, Timestamp.valueOf(now.minusMinutes(random.nextInt(365 * 24 * 60))));
+                });
+
+        ZipfSampler owners = new ZipfSampler(scale.users(), 1.1, random.nextLong());
+        long[] itemOwners = new long[scale.items() + 1];
+        insert("INSERT INTO items (id, name, description, is_available, owner_id, request_id) VALUES (?, ?, ?, ?, ?, ?)",
+                scale.items(), (ps, id) -> {
+                    String noun = pick(NOUNS);
+                    itemOwners[(int) id] = owners.next(random);
+                    ps.setString(2, noun + " " + id);
+                    ps.setString(3, pick(ADJECTIVES) + " " + noun.toLowerCase() + ", " + pick(ADJECTIVES));
+                    ps.setBoolean(4, random.nextInt(10) != 0);
+                    ps.setLong(5, itemOwners[(int) id]);
+                    if (random.nextInt(5) == 0) {
+                        ps.setLong(6, uniform(scale.requests()));
+                    } else {
+                        ps.setNull(6, Types.BIGINT);
+                    }
+                });
+
+        ZipfSampler bookedItems = new ZipfSampler(scale.items(), 0.9, random.nextLong());
+        insert("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?, ?)",
+                scale.bookings(), (ps, id) -> {
+                    long itemId = bookedItems.next(random);
+                    LocalDateTime start = now.minusDays(365).plusMinutes(random.nextInt(455 * 24 * 60));
+                    // длительность от часа до двух недель, короткие аренды встречаются чаще
+                    LocalDateTime end = start.plusMinutes((long) Math.exp(Math.log(60) + random.nextDouble() * Math.log(336)));
+                    ps.setTimestamp(2, Timestamp.valueOf(start));
+                    ps.setTimestamp(3, Timestamp.valueOf(end));
+                    ps.setLong(4, itemId);
+                    ps.setLong(5, booker(itemOwners[(int) itemId], scale.users()));
+                    ps.setString(6, status(start, end).name());
+                });
+
+        ZipfSampler commentedItems = new ZipfSampler(scale.items(), 1.2, random.nextLong());
+        insert("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)",
+                scale.comments(), (ps, id) -> {
+                    long itemId = commentedItems.next(random);
+                    ps.setString(2, "Брал " + pick(NOUNS).toLowerCase() + ", всё отлично");
+                    ps.setLong(3, itemId);
+                    ps.setLong(4, booker(itemOwners[(int) itemId], scale.users()));
+                    ps.setTimestamp(5, Timestamp.valueOf(now.minusMinutes(random.nextInt(365 * 24 * 60))));
+                });
+
+        for (String table : new String[]{"users", "requests", "items", "bookings", "comments"}) {
+            Long next = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+            jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+        jdbc.execute("ANALYZE");
+        log.info("Сгенерировано {} за {} с", scale, (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private void insert(String sql, int rows, RowWriter writer) {
+        for (int from = 1; from <= rows; from += BATCH_SIZE) {
+            int first = from;
+            int size = Math.min(BATCH_SIZE, rows - from + 1);
+            jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    long id = first + i;
+                    ps.setLong(1, id);
+                    writer.write(ps, id);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    private BookingStatus status(LocalDateTime start, LocalDateTime end) {
+        int roll = random.nextInt(10);
+        if (end.isBefore(now)) {
+            return roll < 8 ? BookingStatus.APPROVED : roll == 8 ? BookingStatus.REJECTED : BookingStatus.CANCELED;
+        }
+        if (start.isAfter(now)) {
+            return roll < 4 ? BookingStatus.WAITING : BookingStatus.APPROVED;
+        }
+        return BookingStatus.APPROVED;
+    }
+
+    private long booker(long ownerId, int users) {
+        long bookerId = uniform(users);
+        return bookerId != ownerId ? bookerId : bookerId % users + 1;
+    }
+
+    private long uniform(int n) {
+        return random.nextInt(n) + 1;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement ps, long id) throws SQLException;
+    }
+
+    // Число строк выводится из числа бронирований: пользователь на 20 бронирований, вещь на 10, комментарий на 5
+    public record Scale(int users, int requests, int items, int bookings, int comments) {
+        public static Scale ofBookings(int bookings) {
+            int users = Math.max(100, bookings / 20);
+            return new Scale(users, Math.max(10, users / 4), Math.max(100, bookings / 10), bookings, bookings / 5);
+        }
+    }
+}
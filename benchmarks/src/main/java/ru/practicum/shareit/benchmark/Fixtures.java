@@ -0,0 +1,78 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+// Отсоединённые сущности в том виде, в каком их маппят сервисы: заполнены все связи, которых касаются мапперы
+final class Fixtures {
+    static final LocalDateTime NOW = LocalDateTime.of(2024, 8, 1, 12, 30, 15);
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .name("Пользователь " + id)
+                .email("user" + id + "@yandex.ru")
+                .build();
+    }
+
+    static ItemRequest request(long id) {
+        return ItemRequest.builder()
+                .id(id)
+                .description("Нужна аккумуляторная дрель на выходные " + id)
+                .requestor(user(id))
+                .created(NOW.minusDays(id))
+                .build();
+    }
+
+    static Item item(long id) {
+        return Item.builder()
+                .id(id)
+                .name("Дрель " + id)
+                .description("Аккумуляторная дрель с двумя батареями и кейсом " + id)
+                .available(true)
+                .owner(user(1))
+                .request(request(id))
+                .build();
+    }
+
+    static Booking booking(long id) {
+        return Booking.builder()
+                .id(id)
+                .start(NOW.plusDays(id))
+                .end(NOW.plusDays(id + 2))
+                .item(item(id))
+                .booker(user(id + 1))
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+
+    static Comment comment(long id) {
+        return Comment.builder()
+                .id(id)
+                .text("Отличная дрель, всё работает " + id)
+                .item(item(1))
+                .author(user(id + 1))
+                .created(NOW.minusHours(id))
+                .build();
+    }
+
+    static <T> List<T> listOf(int size, LongFunction<T> factory) {
+        List<T> list = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            list.add(factory.apply(id));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private User user;
+    private UserDto userDto;
+    private Item item;
+    private Booking lastBooking;
+    private Booking nextBooking;
+    private List<Comment> comments;
+    private Booking booking;
+    private ItemRequest request;
+    private List<Item> requestItems;
+
+    @Setup
+    public void setUp() {
+        user = Fixtures.user(1);
+        userDto = UserMapper.toUserDto(user);
+        item = Fixtures.item(1);
+        lastBooking = Fixtures.booking(1);
+        nextBooking = Fixtures.booking(2);
+        comments = Fixtures.listOf(5, Fixtures::comment);
+        booking = Fixtures.booking(3);
+        request = Fixtures.request(1);
+        requestItems = Fixtures.listOf(10, Fixtures::item);
+    }
+
+    @Benchmark
+    public UserDto userToDto() {
+        return UserMapper.toUserDto(user);
+    }
+
+    @Benchmark
+    public User userFromDto() {
+        return UserMapper.toUser(userDto);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public ItemWithBookingsDto itemWithBookingsToDto() {
+        List<CommentDto> commentDtos = comments.stream()
+                .map(ItemMapper::toCommentDto)
+                .toList();
+        return ItemMapper.toItemWithBookingsDto(item, ItemMapper.toBookingShortDto(lastBooking),
+                ItemMapper.toBookingShortDto(nextBooking), commentDtos);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Benchmark
+    public ItemRequestDto itemRequestToDto() {
+        return ItemRequestMapper.toItemRequestDto(request, requestItems);
+    }
+}
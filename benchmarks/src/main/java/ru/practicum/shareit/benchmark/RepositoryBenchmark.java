@@ -0,0 +1,257 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Задержки всех запросов BookingRepository, ItemRepository и ItemRequestRepository на сгенерированных данных.
+// SampleTime даёт p50/p99 по каждому запросу; аргументы берутся из тех же степенных законов, что и данные,
+// поэтому крупные владельцы и популярные вещи попадают в хвост. По умолчанию данные лежат в файловой H2
+// в режиме PostgreSQL и генерируются один раз на все форки; -p database=jdbc:postgresql://... меряет настоящий
+// Postgres (учётные данные из SHAREIT_BENCH_DB_USER и SHAREIT_BENCH_DB_PASSWORD)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+    private static final Sort START_DESC = Sort.by(Sort.Direction.DESC, "start");
+    private static final String H2_URL = "jdbc:h2:file:./target/shareit-bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE";
+
+    @Param({"1000000"})
+    private int bookings;
+
+    // "h2" или JDBC URL
+    @Param({"h2"})
+    private String database;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private ItemRepository itemRepository;
+    private ItemRequestRepository requestRepository;
+    private DataGenerator.Scale scale;
+    private ZipfSampler owners;
+    private ZipfSampler items;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        boolean h2 = "h2".equals(database);
+        String jdbcUrl = h2 ? H2_URL : database;
+        context = new SpringApplicationBuilder(RepositoryContext.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.config.name=repository-benchmark",
+                        "spring.datasource.url=" + jdbcUrl,
+                        "spring.datasource.username=" + env("SHAREIT_BENCH_DB_USER", h2 ? "sa" : "postgres"),
+                        "spring.datasource.password=" + env("SHAREIT_BENCH_DB_PASSWORD", h2 ? "" : "postgres"),
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.sql.init.mode=always",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        bookingRepository = context.getBean(BookingRepository.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        requestRepository = context.getBean(ItemRequestRepository.class);
+
+        now = LocalDateTime.now();
+        scale = DataGenerator.Scale.ofBookings(bookings);
+        DataGenerator generator = new DataGenerator(context.getBean(DataSource.class), 42, now);
+        if (!generator.isGenerated(scale)) {
+            generator.generate(scale);
+        }
+        owners = new ZipfSampler(scale.users(), 1.1, 7);
+        items = new ZipfSampler(scale.items(), 0.9, 11);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Arguments {
+        final SplittableRandom random = new SplittableRandom(13);
+    }
+
+    private long owner(Arguments args) {
+        return owners.next(args.random);
+    }
+
+    private long booker(Arguments args) {
+        return args.random.nextInt(scale.users()) + 1;
+    }
+
+    private long item(Arguments args) {
+        return items.next(args.random);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByBooker(Arguments args) {
+        return bookingRepository.findByBookerId(booker(args), START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByBookerAndStatus(Arguments args) {
+        return bookingRepository.findByBookerIdAndStatus(booker(args), BookingStatus.WAITING, START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByBookerPast(Arguments args) {
+        return bookingRepository.findByBookerIdAndStartBeforeAndEndBefore(booker(args), now, now, START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByBookerFuture(Arguments args) {
+        return bookingRepository.findByBookerIdAndStartAfter(booker(args), now, START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByBookerCurrent(Arguments args) {
+        return bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(booker(args), now, now, START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByOwner(Arguments args) {
+        return bookingRepository.findByItem_Owner_Id(owner(args), START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByOwnerAndStatus(Arguments args) {
+        return bookingRepository.findByItem_Owner_IdAndStatus(owner(args), BookingStatus.WAITING, START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByOwnerPast(Arguments args) {
+        return bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndBefore(owner(args), now, now, START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByOwnerFuture(Arguments args) {
+        return bookingRepository.findByItem_Owner_IdAndStartAfter(owner(args), now, START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByOwnerCurrent(Arguments args) {
+        return bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndAfter(owner(args), now, now, START_DESC);
+    }
+
+    @Benchmark
+    public List<Booking> lastBookingOfItem(Arguments args) {
+        return bookingRepository.findByItemIdAndStatusAndStartBeforeAndEndBefore(item(args), BookingStatus.APPROVED,
+                now, now, Sort.by(Sort.Direction.DESC, "end"));
+    }
+
+    @Benchmark
+    public List<Booking> nextBookingOfItem(Arguments args) {
+        return bookingRepository.findByItemIdAndStatusAndStartAfter(item(args), BookingStatus.APPROVED, now,
+                Sort.by(Sort.Direction.ASC, "start"));
+    }
+
+    @Benchmark
+    public List<Booking> bookingsByItem(Arguments args) {
+        return bookingRepository.findByItemIdAndStartBefore(item(args), now);
+    }
+
+    @Benchmark
+    public boolean bookingOverlapExists(Arguments args) {
+        LocalDateTime start = now.plusDays(args.random.nextInt(30));
+        return bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item(args), BookingStatus.APPROVED,
+                start.plusDays(3), start);
+    }
+
+    @Benchmark
+    public Optional<Booking> bookingById(Arguments args) {
+        return bookingRepository.findById(args.random.nextLong(scale.bookings()) + 1);
+    }
+
+    @Benchmark
+    public List<Item> itemsByOwner(Arguments args) {
+        return itemRepository.findByOwnerId(owner(args));
+    }
+
+    @Benchmark
+    public List<Item> itemSearch(Arguments args) {
+        return itemRepository.search(DataGenerator.NOUNS[args.random.nextInt(DataGenerator.NOUNS.length)]
+                .substring(0, 4));
+    }
+
+    @Benchmark
+    public List<Item> itemSearchAvailable(Arguments args) {
+        LocalDateTime from = now.plusDays(args.random.nextInt(30));
+        return itemRepository.searchAvailable(DataGenerator.NOUNS[args.random.nextInt(DataGenerator.NOUNS.length)]
+                .substring(0, 4), from, from.plusDays(3));
+    }
+
+    @Benchmark
+    public List<Item> itemsByRequest(Arguments args) {
+        return itemRepository.findByRequestId(args.random.nextLong(scale.requests()) + 1);
+    }
+
+    @Benchmark
+    public List<Object[]> itemVersionTagsByRequest(Arguments args) {
+        return itemRepository.findVersionTagsByRequestId(args.random.nextLong(scale.requests()) + 1);
+    }
+
+    @Benchmark
+    public Optional<Item> itemById(Arguments args) {
+        return itemRepository.findById(item(args));
+    }
+
+    @Benchmark
+    public List<ItemRequest> requestsByRequestor(Arguments args) {
+        return requestRepository.findByRequestorId(booker(args));
+    }
+
+    @Benchmark
+    public Page<ItemRequest> requestsOfOthers(Arguments args) {
+        return requestRepository.findByRequestorIdNot(booker(args),
+                PageRequest.of(args.random.nextInt(10), 20, Sort.by(Sort.Direction.DESC, "created")));
+    }
+
+    @Benchmark
+    public Optional<ItemRequest> requestById(Arguments args) {
+        return requestRepository.findById(args.random.nextLong(scale.requests()) + 1);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+
+    // Только JPA и репозитории сервера: без веба, кэша второго уровня и метрик, чтобы мерить сами запросы
+    @Configuration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, SqlInitializationAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+    @EntityScan("ru.practicum.shareit")
+    @EnableJpaRepositories("ru.practicum.shareit")
+    static class RepositoryContext {
+    }
+}
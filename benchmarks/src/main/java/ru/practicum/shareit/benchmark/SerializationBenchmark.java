@@ -0,0 +1,77 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.dto.BookingCreateDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson с теми же модулями, что регистрирует Spring Boot: LocalDateTime идёт через JavaTimeModule строкой ISO
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private static final TypeReference<List<BookingDto>> BOOKING_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "100"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<BookingDto> bookings;
+    private byte[] bookingsJson;
+    private List<ItemWithBookingsDto> items;
+    private ItemRequestDto request;
+    private byte[] bookingCreateJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        bookings = Fixtures.listOf(size, id -> BookingMapper.toBookingDto(Fixtures.booking(id)));
+        bookingsJson = mapper.writeValueAsBytes(bookings);
+        items = Fixtures.listOf(size, id -> ItemMapper.toItemWithBookingsDto(Fixtures.item(id),
+                ItemMapper.toBookingShortDto(Fixtures.booking(id)), ItemMapper.toBookingShortDto(Fixtures.booking(id + 1)),
+                List.of(ItemMapper.toCommentDto(Fixtures.comment(id)))));
+        request = ItemRequestMapper.toItemRequestDto(Fixtures.request(1), Fixtures.listOf(size, Fixtures::item));
+        bookingCreateJson = mapper.writeValueAsBytes(
+                new BookingCreateDto(1L, Fixtures.NOW.plusDays(1), Fixtures.NOW.plusDays(2)));
+    }
+
+    @Benchmark
+    public byte[] serializeBookings() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public List<BookingDto> deserializeBookings() throws Exception {
+        return mapper.readValue(bookingsJson, BOOKING_LIST);
+    }
+
+    @Benchmark
+    public byte[] serializeItemsWithBookings() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] serializeItemRequest() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public BookingCreateDto deserializeGatewayBookingCreate() throws Exception {
+        return mapper.readValue(bookingCreateJson, BookingCreateDto.class);
+    }
+}
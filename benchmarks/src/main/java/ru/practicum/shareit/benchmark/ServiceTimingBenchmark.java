@@ -0,0 +1,123 @@
+package ru.practicum.shareit.benchmark;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingBulkResultDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.metrics.ServiceTimingInterceptor;
+import ru.practicum.shareit.metrics.ServiceTimingPostProcessor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Цена таймеров shareit.service поверх вызова без работы: прямой вызов, прокси с таймером
+// и прокси с процентилями HdrHistogram, как в application.properties
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceTimingBenchmark {
+    private static final BookingState[] STATES = BookingState.values();
+
+    @Param({"direct", "timer", "percentiles"})
+    private String instrumentation;
+
+    private BookingService service;
+    private int calls;
+
+    @Setup
+    public void setUp() {
+        service = switch (instrumentation) {
+            case "direct" -> new NoopBookingService();
+            case "timer" -> instrument(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+            case "percentiles" -> instrument(withPercentiles());
+            default -> throw new IllegalArgumentException("Неизвестный вариант: " + instrumentation);
+        };
+    }
+
+    @Benchmark
+    public List<BookingDto> getAllByOwner() {
+        return service.getAllByOwner(1L, STATES[calls++ % STATES.length]);
+    }
+
+    private static MeterRegistry withPercentiles() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.95, 0.99)
+                        .expiry(Duration.ofMinutes(1))
+                        .build()
+                        .merge(config);
+            }
+        });
+        return registry;
+    }
+
+    private static BookingService instrument(MeterRegistry registry) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", registry);
+        ServiceTimingPostProcessor postProcessor = new ServiceTimingPostProcessor(
+                beanFactory.getBeanProvider(MeterRegistry.class), List.of(BookingService.class));
+        BookingService service = (BookingService) postProcessor.postProcessAfterInitialization(
+                new NoopBookingService(), "bookingService");
+        service.getAllByOwner(1L, BookingState.ALL);
+        if (registry.find(ServiceTimingInterceptor.METRIC).timer() == null) {
+            throw new IllegalStateException("Сервис не инструментирован");
+        }
+        return service;
+    }
+
+    private static class NoopBookingService implements BookingService {
+        private static final List<BookingDto> EMPTY = List.of();
+
+        @Override
+        public BookingDto create(Long userId, BookingCreateDto dto) {
+            return null;
+        }
+
+        @Override
+        public BookingDto approve(Long userId, Long bookingId, Boolean approved) {
+            return null;
+        }
+
+        @Override
+        public BookingBulkResultDto decideAll(Long userId, BookingBulkDecisionDto dto) {
+            return null;
+        }
+
+        @Override
+        public BookingDto getById(Long userId, Long bookingId) {
+            return null;
+        }
+
+        @Override
+        public String getETag(Long userId, Long bookingId) {
+            return null;
+        }
+
+        @Override
+        public List<BookingDto> getAllByBooker(Long bookerId, BookingState state) {
+            return EMPTY;
+        }
+
+        @Override
+        public List<BookingDto> getAllByOwner(Long ownerId, BookingState state) {
+            return EMPTY;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON против Smile на участке шлюз — сервер для типичных списков: сериализация на сервере, разбор
+// и перекодирование Smile в JSON, которое шлюз делает для внешних клиентов. Размеры печатаются в @Setup
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Param({"bookings", "items"})
+    private String payload;
+
+    private ObjectMapper json;
+    private ObjectMapper smile;
+    private List<?> values;
+    private JavaType type;
+    private byte[] jsonBytes;
+    private byte[] smileBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        json = Jackson2ObjectMapperBuilder.json().build();
+        smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        switch (payload) {
+            case "bookings" -> {
+                values = Fixtures.listOf(200, id -> BookingMapper.toBookingDto(Fixtures.booking(id)));
+                type = json.getTypeFactory().constructCollectionType(List.class, BookingDto.class);
+            }
+            case "items" -> {
+                values = Fixtures.listOf(100, id -> ItemMapper.toItemWithBookingsDto(Fixtures.item(id),
+                        ItemMapper.toBookingShortDto(Fixtures.booking(id)),
+                        ItemMapper.toBookingShortDto(Fixtures.booking(id + 1)),
+                        List.of(ItemMapper.toCommentDto(Fixtures.comment(id)))));
+                type = json.getTypeFactory().constructCollectionType(List.class, ItemWithBookingsDto.class);
+            }
+            default -> throw new IllegalArgumentException("Неизвестный набор: " + payload);
+        }
+        jsonBytes = json.writeValueAsBytes(values);
+        smileBytes = smile.writeValueAsBytes(values);
+        System.out.printf("%s: json %d B, smile %d B (%.0f%%)%n", payload, jsonBytes.length, smileBytes.length,
+                100.0 * smileBytes.length / jsonBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return json.writeValueAsBytes(values);
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() throws IOException {
+        return smile.writeValueAsBytes(values);
+    }
+
+    @Benchmark
+    public Object deserializeJson() throws IOException {
+        return json.readValue(jsonBytes, type);
+    }
+
+    @Benchmark
+    public Object deserializeSmile() throws IOException {
+        return smile.readValue(smileBytes, type);
+    }
+
+    @Benchmark
+    public byte[] transcodeSmileToJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(smileBytes.length * 2);
+        try (JsonParser parser = smile.getFactory().createParser(smileBytes);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+        return out.toByteArray();
+    }
+}
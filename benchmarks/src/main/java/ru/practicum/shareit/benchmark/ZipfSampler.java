@@ -0,0 +1,44 @@
+package ru.practicum.shareit.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Выдаёт id 1..n с вероятностью, пропорциональной 1 / rank^exponent, — длинный хвост как в продакшене:
+// несколько владельцев с сотнями вещей, несколько вещей с большинством бронирований и комментариев.
+// Ранги перемешаны, чтобы популярные id были разбросаны по таблице, а не стояли в её начале
+final class ZipfSampler {
+    private final double[] cumulative;
+    private final long[] ids;
+
+    ZipfSampler(int n, double exponent, long seed) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+
+        ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+    }
+
+    long next(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return ids[Math.min(index, ids.length - 1)];
+    }
+}
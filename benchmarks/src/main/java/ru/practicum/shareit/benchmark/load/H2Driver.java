@@ -0,0 +1,37 @@
+package ru.practicum.shareit.benchmark.load;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+// В jar сервера есть только драйвер Postgres. Для прогона на H2 драйвер отдаётся загрузчику классов сервера
+// отдельно: сам jar H2 или, внутри shaded jar бенчмарков, его классы, скопированные во временную папку
+final class H2Driver {
+
+    private H2Driver() {
+    }
+
+    static Path classpath() throws IOException, URISyntaxException {
+        Path location = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        if (location.getFileName().toString().startsWith("h2-")) {
+            return location;
+        }
+        Path target = Files.createTempDirectory("shareit-h2");
+        try (FileSystem jar = FileSystems.newFileSystem(location);
+             Stream<Path> entries = Files.walk(jar.getPath("/org/h2"))) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                Path copy = target.resolve(entry.toString().substring(1));
+                if (Files.isDirectory(entry)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(entry, copy);
+                }
+            }
+        }
+        return target;
+    }
+}
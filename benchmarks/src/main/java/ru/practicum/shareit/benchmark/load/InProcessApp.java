@@ -0,0 +1,90 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Запускает исполняемый jar Spring Boot внутри этой JVM. У каждого приложения свой загрузчик классов с родителем
+// platform, поэтому MVC-сервер и WebFlux-шлюз видят только свои зависимости и конфигурацию, как в контейнерах.
+// Приложения останавливаются вместе с JVM
+@Slf4j
+final class InProcessApp {
+    private static final String LAUNCHER = "org.springframework.boot.loader.launch.JarLauncher";
+
+    private final String name;
+    private final int port;
+
+    private InProcessApp(String name, int port) {
+        this.name = name;
+        this.port = port;
+    }
+
+    // extraClasspath — jar-ы или папки классов поверх приложения, например JDBC-драйвер, которого нет в jar
+    static InProcessApp start(String name, Path jar, List<Path> extraClasspath, int port, List<String> args)
+            throws Exception {
+        List<URL> urls = new ArrayList<>();
+        urls.add(jar.toUri().toURL());
+        for (Path path : extraClasspath) {
+            urls.add(path.toUri().toURL());
+        }
+        ClassLoader loader = new URLClassLoader(name, urls.toArray(URL[]::new), ClassLoader.getPlatformClassLoader());
+
+        List<String> arguments = new ArrayList<>(args);
+        arguments.add("--server.port=" + port);
+        Throwable[] failure = new Throwable[1];
+        // JarLauncher возвращается, когда SpringApplication.run закончил старт, дальше живут потоки веб-сервера
+        Thread main = new Thread(() -> {
+            try {
+                loader.loadClass(LAUNCHER).getMethod("main", String[].class)
+                        .invoke(null, (Object) arguments.toArray(String[]::new));
+            } catch (InvocationTargetException e) {
+                failure[0] = e.getCause();
+            } catch (ReflectiveOperationException e) {
+                failure[0] = e;
+            }
+        }, name + "-main");
+        main.setContextClassLoader(loader);
+        main.start();
+        main.join();
+        if (failure[0] != null) {
+            throw new IllegalStateException("Не удалось запустить " + name, failure[0]);
+        }
+
+        InProcessApp app = new InProcessApp(name, port);
+        app.awaitHealthy(Duration.ofSeconds(60));
+        log.info("{} запущен на порту {}", name, port);
+        return app;
+    }
+
+    URI uri() {
+        return URI.create("http://localhost:" + port);
+    }
+
+    private void awaitHealthy(Duration timeout) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(uri().resolve("/actuator/health")).build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                log.debug("{} ещё не отвечает: {}", name, e.getMessage());
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException(name + " не стал healthy за " + timeout);
+    }
+}
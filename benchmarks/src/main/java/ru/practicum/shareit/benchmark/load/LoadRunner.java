@@ -0,0 +1,116 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Гоняет смесь запросов в одной из двух моделей. Закрытая: фиксированное число клиентов, каждый шлёт следующий
+// запрос, когда вернулся предыдущий, и пропускная способность подстраивается под задержку. Открытая: запросы
+// приходят с постоянной частотой, как бы система ни справлялась, а задержка считается от запланированного
+// времени отправки, поэтому затор виден в каждом запросе, вставшем за ним, а не прячется (coordinated omission)
+@Slf4j
+final class LoadRunner {
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    private final TrafficMix mix;
+    private final Map<TrafficMix.Endpoint, EndpointStats> stats = new EnumMap<>(TrafficMix.Endpoint.class);
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean recording;
+
+    LoadRunner(TrafficMix mix) {
+        this.mix = mix;
+        for (TrafficMix.Endpoint endpoint : TrafficMix.Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats(endpoint.label));
+        }
+    }
+
+    Map<TrafficMix.Endpoint, EndpointStats> stats() {
+        return stats;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    void runClosed(int clients, Duration warmup, Duration duration) throws InterruptedException {
+        long end = System.nanoTime() + warmup.toNanos() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        call(mix.pick(), System.nanoTime(), recording);
+                    }
+                });
+            }
+            measureAfter(warmup);
+        }
+    }
+
+    void runOpen(int ratePerSecond, Duration warmup, Duration duration) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = start; intended < end; intended += interval) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean measured = intended >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        dropped.increment();
+                    }
+                    continue;
+                }
+                long scheduled = intended;
+                executor.submit(() -> {
+                    try {
+                        call(mix.pick(), scheduled, measured);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void measureAfter(Duration warmup) throws InterruptedException {
+        Thread.sleep(warmup.toMillis());
+        recording = true;
+        log.info("Прогрев закончен, идёт замер");
+    }
+
+    private void call(TrafficMix.Endpoint endpoint, long startNanos, boolean measured) {
+        boolean success;
+        try {
+            ShareItHttp.Response response = mix.execute(endpoint);
+            if (response == null) {
+                return;
+            }
+            success = response.isSuccess();
+            if (!success && measured) {
+                log.debug("{}: ответ {}", endpoint.label, response.status());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            log.debug("{}: {}", endpoint.label, e.toString());
+            success = false;
+        }
+        if (measured) {
+            stats.get(endpoint).record(System.nanoTime() - startNanos, success);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package ru.practicum.shareit.benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Сквозной нагрузочный тест: поднимает сервер и шлюз из их исполняемых jar в этой JVM, засевает данные через шлюз,
+// гоняет TrafficMix в закрытой или открытой модели, печатает и сохраняет пропускную способность и перцентили
+// задержек по эндпоинтам (summary.json и по .hgrm HdrHistogram на эндпоинт). Если эндпоинт не уложился в SLO
+// по p99 или доле ошибок, выходит с кодом 1, чтобы прогон мог валить сборку.
+//
+// Запуск из корня репозитория после mvn package:
+// java -cp benchmarks/target/benchmarks.jar ru.practicum.shareit.benchmark.load.LoadTest --model=open --rate=300
+// Опции: --model=closed|open, --clients, --rate, --warmup, --duration, --database=h2|<jdbc-url>, --db-user,
+// --db-password, --owners, --bookers, --items-per-owner, --server-jar, --gateway-jar, --out,
+// --slo.<endpoint>=<p99 мс>, --slo.errors=<допустимая доля ошибок>
+@Slf4j
+public final class LoadTest {
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("model", "closed"),
+            Map.entry("clients", "32"),
+            Map.entry("rate", "200"),
+            Map.entry("warmup", "15s"),
+            Map.entry("duration", "60s"),
+            Map.entry("database", "h2"),
+            Map.entry("owners", "50"),
+            Map.entry("bookers", "200"),
+            Map.entry("items-per-owner", "5"),
+            Map.entry("out", "target/load"),
+            Map.entry("slo.errors", "0.01"),
+            Map.entry("slo.search", "250"),
+            Map.entry("slo.item", "150"),
+            Map.entry("slo.owner-items", "300"),
+            Map.entry("slo.owner-bookings", "400"),
+            Map.entry("slo.create-booking", "250"),
+            Map.entry("slo.approve", "250"),
+            Map.entry("slo.comment", "250"));
+    private static final String H2_URL = "jdbc:h2:mem:shareit-load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        boolean passed;
+        try {
+            passed = run(options);
+        } catch (Exception e) {
+            log.error("Нагрузочный тест не выполнен", e);
+            System.exit(2);
+            return;
+        }
+        // приложения живут в этой же JVM, их останавливают shutdown hook'и Spring
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean run(Map<String, String> options) throws Exception {
+        boolean h2 = "h2".equals(options.get("database"));
+        List<String> serverArgs = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + (h2 ? H2_URL : options.get("database")),
+                "--spring.datasource.username=" + options.getOrDefault("db-user", h2 ? "sa" : "postgres"),
+                "--spring.datasource.password=" + options.getOrDefault("db-password", h2 ? "" : "postgres"),
+                "--logging.level.ru.practicum.shareit=WARN",
+                "--logging.level.ru.practicum.shareit.service=WARN"));
+        List<Path> serverExtras = new ArrayList<>();
+        if (h2) {
+            serverArgs.add("--spring.datasource.driverClassName=org.h2.Driver");
+            serverExtras.add(H2Driver.classpath());
+        }
+        InProcessApp server = InProcessApp.start("shareit-server", jar(options, "server"), serverExtras, freePort(),
+                serverArgs);
+        InProcessApp gateway = InProcessApp.start("shareit-gateway", jar(options, "gateway"), List.of(), freePort(),
+                List.of("--shareit-server.url=" + server.uri(), "--logging.level.ru.practicum.shareit=WARN"));
+
+        TrafficMix mix = new TrafficMix(new ShareItHttp(gateway.uri()));
+        mix.seed(intOption(options, "owners"), intOption(options, "bookers"), intOption(options, "items-per-owner"));
+
+        LoadRunner runner = new LoadRunner(mix);
+        Duration warmup = DurationStyle.detectAndParse(options.get("warmup"));
+        Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+        String model = options.get("model");
+        log.info("Модель {}, прогрев {}, замер {}", model, warmup, duration);
+        if ("open".equals(model)) {
+            runner.runOpen(intOption(options, "rate"), warmup, duration);
+        } else {
+            runner.runClosed(intOption(options, "clients"), warmup, duration);
+        }
+        return report(runner, options, duration);
+    }
+
+    private static boolean report(LoadRunner runner, Map<String, String> options, Duration duration) throws IOException {
+        Path out = Path.of(options.get("out"));
+        Files.createDirectories(out);
+        double maxErrorRate = Double.parseDouble(options.get("slo.errors"));
+        boolean passed = true;
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+
+        System.out.printf("%-26s %9s %9s %9s %9s %9s %9s %8s %s%n",
+                "endpoint", "requests", "rps", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors", "SLO");
+        for (Map.Entry<TrafficMix.Endpoint, EndpointStats> entry : runner.stats().entrySet()) {
+            EndpointStats stats = entry.getValue();
+            double p99 = stats.percentileMillis(99);
+            double sloP99 = Double.parseDouble(options.get("slo." + entry.getKey().key));
+            boolean met = stats.count() > 0 && p99 <= sloP99 && stats.errorRate() <= maxErrorRate;
+            passed &= met;
+            System.out.printf("%-26s %9d %9.1f %9.1f %9.1f %9.1f %9.1f %7.2f%% %s%n", stats.name(), stats.count(),
+                    (double) stats.count() / duration.toSeconds(), stats.percentileMillis(50),
+                    stats.percentileMillis(90), p99, stats.latency().getMaxValue() / 1000.0, stats.errorRate() * 100,
+                    met ? "ok" : "FAIL (p99 <= " + sloP99 + " ms)");
+
+            try (PrintStream hgrm = new PrintStream(out.resolve(entry.getKey().key + ".hgrm").toFile())) {
+                stats.latency().outputPercentileDistribution(hgrm, 1000.0);
+            }
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("endpoint", stats.name());
+            json.put("requests", stats.count());
+            json.put("errors", stats.errors());
+            json.put("throughputPerSecond", (double) stats.count() / duration.toSeconds());
+            json.put("p50Ms", stats.percentileMillis(50));
+            json.put("p90Ms", stats.percentileMillis(90));
+            json.put("p99Ms", p99);
+            json.put("maxMs", stats.latency().getMaxValue() / 1000.0);
+            json.put("sloP99Ms", sloP99);
+            json.put("sloMet", met);
+            endpoints.add(json);
+        }
+        if (runner.dropped() > 0) {
+            log.warn("Не отправлено из-за лимита одновременных запросов: {}", runner.dropped());
+            passed = false;
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("model", options.get("model"));
+        summary.put("clients", "open".equals(options.get("model")) ? null : intOption(options, "clients"));
+        summary.put("rate", "open".equals(options.get("model")) ? intOption(options, "rate") : null);
+        summary.put("durationSeconds", duration.toSeconds());
+        summary.put("dropped", runner.dropped());
+        summary.put("passed", passed);
+        summary.put("endpoints", endpoints);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.resolve("summary.json").toFile(), summary);
+        if (passed) {
+            log.info("SLO выполнены, результаты в {}", out.toAbsolutePath());
+        } else {
+            log.error("SLO нарушены, результаты в {}", out.toAbsolutePath());
+        }
+        return passed;
+    }
+
+    private static Path jar(Map<String, String> options, String module) throws IOException {
+        String configured = options.get(module + "-jar");
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        for (Path dir : List.of(Path.of(module, "target"), Path.of("..", module, "target"))) {
+            if (Files.isDirectory(dir)) {
+                try (var files = Files.list(dir)) {
+                    var jar = files.filter(path -> path.getFileName().toString().endsWith("-exec.jar")).findFirst();
+                    if (jar.isPresent()) {
+                        return jar.get();
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Не найден исполняемый jar модуля " + module + ": соберите проект или укажите --"
+                + module + "-jar");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static int intOption(Map<String, String> options, String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Ожидался аргумент вида --name=value: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
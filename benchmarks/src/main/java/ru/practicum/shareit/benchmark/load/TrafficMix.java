@@ -0,0 +1,151 @@
+package ru.practicum.shareit.benchmark.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Смесь запросов рабочего дня: в основном поиск и страницы вещей, владельцы смотрят свои объявления, идёт ровный
+// поток бронирований, которые владельцы подтверждают, а букеры потом комментируют. Засев создаёт через шлюз
+// пользователей, вещи и завершённые бронирования, нужные смеси
+@Slf4j
+final class TrafficMix {
+    private static final String[] WORDS = {"дрель", "лестница", "палатка", "велосипед", "проектор", "пила", "мангал"};
+
+    enum Endpoint {
+        SEARCH("search", "GET /items/search", 30),
+        ITEM("item", "GET /items/{id}", 15),
+        OWNER_ITEMS("owner-items", "GET /items", 15),
+        OWNER_BOOKINGS("owner-bookings", "GET /bookings/owner", 10),
+        CREATE_BOOKING("create-booking", "POST /bookings", 15),
+        APPROVE("approve", "PATCH /bookings/{id}", 10),
+        COMMENT("comment", "POST /items/{id}/comment", 5);
+
+        final String key;
+        final String label;
+        final int weight;
+
+        Endpoint(String key, String label, int weight) {
+            this.key = key;
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private static final int TOTAL_WEIGHT = Arrays.stream(Endpoint.values()).mapToInt(e -> e.weight).sum();
+
+    private final ShareItHttp http;
+    private final List<Long> owners = new ArrayList<>();
+    private final List<Long> bookers = new ArrayList<>();
+    private final List<long[]> items = new ArrayList<>();
+    private final List<long[]> finishedBookings = new ArrayList<>();
+    private final Queue<long[]> waitingBookings = new ConcurrentLinkedQueue<>();
+
+    TrafficMix(ShareItHttp http) {
+        this.http = http;
+    }
+
+    void seed(int ownerCount, int bookerCount, int itemsPerOwner) throws IOException, InterruptedException {
+        for (int i = 0; i < ownerCount; i++) {
+            owners.add(createUser("owner" + i));
+        }
+        for (int i = 0; i < bookerCount; i++) {
+            bookers.add(createUser("booker" + i));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long owner : owners) {
+            for (int i = 1 + random.nextInt(itemsPerOwner * 2); i > 0; i--) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                long itemId = expectSuccess(http.send("POST", "/items", owner, Map.of(
+                        "name", word + " " + i,
+                        "description", "Сдаю " + word + " на выходные",
+                        "available", true))).id();
+                items.add(new long[]{owner, itemId});
+            }
+        }
+        // короткие одобренные бронирования: сервис разрешает по ним комментарии
+        LocalDateTime start = LocalDateTime.now().plusMinutes(1);
+        for (long booker : bookers) {
+            long[] item = items.get(random.nextInt(items.size()));
+            long bookingId = expectSuccess(http.send("POST", "/bookings", booker, Map.of(
+                    "itemId", item[1], "start", start.toString(), "end", start.plusHours(1).toString()))).id();
+            expectSuccess(http.send("PATCH", "/bookings/" + bookingId + "?approved=true", item[0], null));
+            finishedBookings.add(new long[]{booker, item[1]});
+        }
+        log.info("Подготовлено: {} владельцев, {} арендаторов, {} вещей", owners.size(), bookers.size(), items.size());
+    }
+
+    Endpoint pick() {
+        int roll = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Endpoint endpoint : Endpoint.values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint == Endpoint.APPROVE && waitingBookings.isEmpty() ? Endpoint.CREATE_BOOKING : endpoint;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    // null, если последнее ожидающее бронирование уже забрал другой воркер
+    ShareItHttp.Response execute(Endpoint endpoint) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] item = items.get(random.nextInt(items.size()));
+        long owner = owners.get(random.nextInt(owners.size()));
+        long booker = bookers.get(random.nextInt(bookers.size()));
+        return switch (endpoint) {
+            case SEARCH -> http.send("GET", "/items/search?text=" + encode(WORDS[random.nextInt(WORDS.length)]),
+                    booker, null);
+            case ITEM -> http.send("GET", "/items/" + item[1], booker, null);
+            case OWNER_ITEMS -> http.send("GET", "/items", owner, null);
+            case OWNER_BOOKINGS -> http.send("GET", "/bookings/owner?state=ALL", owner, null);
+            case CREATE_BOOKING -> {
+                LocalDateTime start = LocalDateTime.now().plusDays(1 + random.nextInt(365)).plusMinutes(random.nextInt(1440));
+                ShareItHttp.Response response = http.send("POST", "/bookings", booker, Map.of(
+                        "itemId", item[1], "start", start.toString(),
+                        "end", start.plusHours(1 + random.nextInt(72)).toString()));
+                if (response.isSuccess()) {
+                    waitingBookings.add(new long[]{item[0], response.id()});
+                }
+                yield response;
+            }
+            case APPROVE -> {
+                long[] waiting = waitingBookings.poll();
+                if (waiting == null) {
+                    yield null;
+                }
+                yield http.send("PATCH", "/bookings/" + waiting[1] + "?approved=" + random.nextBoolean(),
+                        waiting[0], null);
+            }
+            case COMMENT -> {
+                long[] finished = finishedBookings.get(random.nextInt(finishedBookings.size()));
+                yield http.send("POST", "/items/" + finished[1] + "/comment", finished[0],
+                        Map.of("text", "Всё работает, спасибо"));
+            }
+        };
+    }
+
+    private long createUser(String name) throws IOException, InterruptedException {
+        return expectSuccess(http.send("POST", "/users", null,
+                Map.of("name", name, "email", name + "@load.test"))).id();
+    }
+
+    private static ShareItHttp.Response expectSuccess(ShareItHttp.Response response) {
+        if (!response.isSuccess()) {
+            throw new IllegalStateException("Подготовка данных: ответ " + response.status() + " " + new String(response.body()));
+        }
+        return response;
+    }
+
+    private static String encode(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+}
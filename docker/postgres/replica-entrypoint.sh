@@ -0,0 +1,14 @@
+#!/bin/sh
+# Потоковая реплика: при пустом томе снимает базовую копию с primary и стартует в режиме hot standby
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_basebackup --host=shareit-db --username=replicator --pgdata="$PGDATA" \
+            --wal-method=stream --write-recovery-conf --checkpoint=fast; do
+        echo "primary недоступен, повтор через 2 с"
+        sleep 2
+    done
+    chmod 700 "$PGDATA"
+fi
+
+exec postgres -c hot_standby=on
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.balancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.LoadBalancerProperties;
+
+// Периодически опрашивает health каждого инстанса. WebClient свой, чтобы проверки шли мимо балансировки,
+// склейки запросов и фильтров устойчивости обычных клиентов
+@Slf4j
+public class ActiveHealthChecker {
+    private final LoadBalancer loadBalancer;
+    private final LoadBalancerProperties.HealthCheck properties;
+    private final WebClient webClient;
+    private Disposable loop;
+
+    public ActiveHealthChecker(LoadBalancer loadBalancer, LoadBalancerProperties.HealthCheck properties,
+                               WebClient webClient) {
+        this.loadBalancer = loadBalancer;
+        this.properties = properties;
+        this.webClient = webClient;
+    }
+
+    public void start() {
+        loop = Flux.interval(properties.getInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> checkAll())
+                .subscribe();
+    }
+
+    public void stop() {
+        if (loop != null) {
+            loop.dispose();
+        }
+    }
+
+    Mono<Void> checkAll() {
+        return Flux.fromIterable(loadBalancer.getInstances())
+                .flatMap(instance -> probe(instance)
+                        .doOnNext(passed -> {
+                            boolean changed = instance.recordCheck(passed,
+                                    properties.getHealthyThreshold(), properties.getUnhealthyThreshold());
+                            if (changed) {
+                                log.warn("Инстанс {} {}", instance, passed ? "снова доступен" : "не прошёл проверку здоровья");
+                            }
+                        }))
+                .then();
+    }
+
+    private Mono<Boolean> probe(ServerInstance instance) {
+        return webClient.get()
+                .uri(instance.getUri().resolve(properties.getPath()))
+                .exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(response.statusCode().is2xxSuccessful()))
+                .timeout(properties.getTimeout())
+                .onErrorReturn(false);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.balancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.config.LoadBalancerProperties;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+// Выбирает инстанс сервера для каждого вызова. Инстансы, не прошедшие активные проверки или исключённые
+// как выбросы, пропускаются; если не осталось ни одного, снова берутся все, а не валится каждый запрос
+@Slf4j
+public class LoadBalancer {
+    private final List<ServerInstance> instances;
+    private final LoadBalancingStrategy strategy;
+    private final NavigableMap<Long, ServerInstance> ring = new TreeMap<>();
+    private final LoadBalancerProperties.Outlier outlier;
+    private final Map<ServerInstance, Counter> ejections = new HashMap<>();
+    private final LongSupplier clock;
+
+    public LoadBalancer(LoadBalancerProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    LoadBalancer(LoadBalancerProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        if (properties.getInstances().isEmpty()) {
+            throw new IllegalStateException("Не задан список инстансов shareit-server.load-balancer.instances");
+        }
+        this.instances = properties.getInstances().stream()
+                .map(ServerInstance::new)
+                .toList();
+        this.strategy = properties.getStrategy();
+        this.outlier = properties.getOutlier();
+        this.clock = clock;
+        for (ServerInstance instance : instances) {
+            for (int i = 0; i < properties.getVirtualNodes(); i++) {
+                ring.put(md5Hash(instance.getUri() + "#" + i), instance);
+            }
+            Gauge.builder("gateway.lb.outstanding", instance, i -> i.getOutstanding().get())
+                    .tag("instance", instance.toString())
+                    .register(meterRegistry);
+            Gauge.builder("gateway.lb.available", instance, i -> i.isAvailable(clock.getAsLong()) ? 1 : 0)
+                    .tag("instance", instance.toString())
+                    .register(meterRegistry);
+            ejections.put(instance, Counter.builder("gateway.lb.ejections")
+                    .tag("instance", instance.toString())
+                    .register(meterRegistry));
+        }
+    }
+
+    public List<ServerInstance> getInstances() {
+        return instances;
+    }
+
+    // userId — X-Sharer-User-Id, ключ хеширования для CONSISTENT_HASH
+    public ServerInstance choose(String userId) {
+        long now = clock.getAsLong();
+        boolean anyAvailable = instances.stream().anyMatch(instance -> instance.isAvailable(now));
+        if (strategy == LoadBalancingStrategy.CONSISTENT_HASH && userId != null) {
+            return chooseByHash(userId, now, anyAvailable);
+        }
+        return chooseLeastOutstanding(now, anyAvailable);
+    }
+
+    public void recordResult(ServerInstance instance, boolean success) {
+        if (success) {
+            instance.getConsecutiveFailures().set(0);
+            return;
+        }
+        if (instance.getConsecutiveFailures().incrementAndGet() < outlier.getConsecutiveFailures()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long ejected = instances.stream().filter(i -> i.isEjected(now)).count();
+        if ((ejected + 1) * 100 > (long) instances.size() * outlier.getMaxEjectionPercent()) {
+            return;
+        }
+        instance.eject(now + outlier.getEjectionTime().toMillis());
+        ejections.get(instance).increment();
+        log.warn("Инстанс {} исключён из балансировки на {}", instance, outlier.getEjectionTime());
+    }
+
+    private ServerInstance chooseLeastOutstanding(long now, boolean anyAvailable) {
+        int size = instances.size();
+        int start = ThreadLocalRandom.current().nextInt(size);
+        ServerInstance best = null;
+        for (int i = 0; i < size; i++) {
+            ServerInstance candidate = instances.get((start + i) % size);
+            if (anyAvailable && !candidate.isAvailable(now)) {
+                continue;
+            }
+            if (best == null || candidate.getOutstanding().get() < best.getOutstanding().get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private ServerInstance chooseByHash(String userId, long now, boolean anyAvailable) {
+        long hash = mix(userId.hashCode());
+        Map.Entry<Long, ServerInstance> entry = ring.ceilingEntry(hash);
+        for (int i = 0; i < ring.size(); i++) {
+            if (entry == null) {
+                entry = ring.firstEntry();
+            }
+            if (!anyAvailable || entry.getValue().isAvailable(now)) {
+                return entry.getValue();
+            }
+            entry = ring.higherEntry(entry.getKey());
+        }
+        return ring.firstEntry().getValue();
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long md5Hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
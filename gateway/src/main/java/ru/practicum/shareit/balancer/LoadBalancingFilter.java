@@ -0,0 +1,83 @@
+package ru.practicum.shareit.balancer;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+// Отправляет запрос на инстанс, выбранный LoadBalancer; клиенты строят URL от shareit-server.url,
+// подменяются только схема, хост и порт
+public class LoadBalancingFilter implements ExchangeFilterFunction {
+    private final LoadBalancer loadBalancer;
+
+    public LoadBalancingFilter(LoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            ServerInstance instance = loadBalancer.choose(request.headers().getFirst(X_SHARER_USER_ID));
+            ClientRequest routed = ClientRequest.from(request)
+                    .url(resolve(instance, request.url()))
+                    .build();
+            instance.getOutstanding().incrementAndGet();
+            InFlight inFlight = new InFlight(instance);
+            return next.exchange(routed)
+                    .doOnNext(response -> loadBalancer.recordResult(instance, !response.statusCode().is5xxServerError()))
+                    .doOnError(error -> loadBalancer.recordResult(instance, false))
+                    .map(inFlight::untilBodyEnds)
+                    .doOnError(error -> inFlight.finish())
+                    .doOnCancel(inFlight::finishIfBodyNotTaken)
+                    .switchIfEmpty(Mono.fromRunnable(inFlight::finish));
+        });
+    }
+
+    // Запрос занимает инстанс, пока не дочитано тело: заголовки приходят раньше, а медленное тело
+    // всё ещё держит соединение и нагрузку на сервере
+    private static class InFlight {
+        private final ServerInstance instance;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile boolean bodyTaken;
+
+        InFlight(ServerInstance instance) {
+            this.instance = instance;
+        }
+
+        ClientResponse untilBodyEnds(ClientResponse response) {
+            bodyTaken = true;
+            return response.mutate()
+                    .body(body -> body.doOnTerminate(this::finish).doOnCancel(this::finish))
+                    .build();
+        }
+
+        void finishIfBodyNotTaken() {
+            if (!bodyTaken) {
+                finish();
+            }
+        }
+
+        void finish() {
+            if (finished.compareAndSet(false, true)) {
+                instance.getOutstanding().decrementAndGet();
+            }
+        }
+    }
+
+    private static URI resolve(ServerInstance instance, URI url) {
+        URI base = instance.getUri();
+        StringBuilder target = new StringBuilder()
+                .append(base.getScheme()).append("://").append(base.getRawAuthority())
+                .append(url.getRawPath());
+        if (url.getRawQuery() != null) {
+            target.append('?').append(url.getRawQuery());
+        }
+        return URI.create(target.toString());
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.balancer;
+
+public enum LoadBalancingStrategy {
+    LEAST_OUTSTANDING,
+    CONSISTENT_HASH
+}
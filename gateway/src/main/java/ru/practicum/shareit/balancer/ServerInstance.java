@@ -0,0 +1,56 @@
+package ru.practicum.shareit.balancer;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Реплика сервера с её нагрузкой и здоровьем. Здоровье задают два независимых источника:
+// активные проверки (healthy) и пассивное выявление выбросов на живом трафике (ejectedUntil)
+@Getter
+public class ServerInstance {
+    private final URI uri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile long ejectedUntil;
+    private int checkStreak;
+
+    ServerInstance(URI uri) {
+        this.uri = uri;
+    }
+
+    public boolean isAvailable(long nowMillis) {
+        return healthy && ejectedUntil <= nowMillis;
+    }
+
+    public boolean isEjected(long nowMillis) {
+        return ejectedUntil > nowMillis;
+    }
+
+    void eject(long untilMillis) {
+        ejectedUntil = untilMillis;
+        consecutiveFailures.set(0);
+    }
+
+    // Результат активной проверки; состояние меняется только после threshold одинаковых результатов подряд.
+    // Вызывается из единственного цикла проверок, поэтому серии синхронизация не нужна
+    boolean recordCheck(boolean passed, int healthyThreshold, int unhealthyThreshold) {
+        if (passed == healthy) {
+            checkStreak = 0;
+            return false;
+        }
+        checkStreak++;
+        if (checkStreak >= (passed ? healthyThreshold : unhealthyThreshold)) {
+            healthy = passed;
+            checkStreak = 0;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+}
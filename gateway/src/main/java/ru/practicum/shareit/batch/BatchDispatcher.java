@@ -0,0 +1,158 @@
+package ru.practicum.shareit.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.ForwardedHeadersWebFilter;
+import ru.practicum.shareit.dto.BatchRequestDto;
+import ru.practicum.shareit.dto.BatchResponseDto;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+// Выполняет подзапросы пакета параллельно через полную цепочку обработчиков шлюза (фильтры, контроллеры,
+// валидация, обработка ошибок), так что каждый ведёт себя как тот же вызов, сделанный отдельно
+@Component
+public class BatchDispatcher {
+    private static final String BATCH_PATH = "/batch";
+    // Подзапрос может задать только условные заголовки: Accept-Encoding, hop-by-hop и прочие заголовки
+    // соединения к нему не относятся, а сжатое тело нельзя вложить в JSON ответа
+    private static final List<String> SUB_REQUEST_HEADERS = List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MATCH,
+            HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_UNMODIFIED_SINCE);
+
+    private final ObjectProvider<HttpHandler> httpHandlerProvider;
+    private final ApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+    private volatile HttpHandler httpHandler;
+
+    public BatchDispatcher(ObjectProvider<HttpHandler> httpHandlerProvider, ApplicationContext applicationContext,
+                           ObjectMapper objectMapper) {
+        this.httpHandlerProvider = httpHandlerProvider;
+        this.applicationContext = applicationContext;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<BatchResponseDto> dispatch(ServerWebExchange exchange, BatchRequestDto batch) {
+        List<BatchRequestDto.SubRequest> requests = batch.getRequests();
+        return Flux.range(0, requests.size())
+                .flatMapSequential(index -> dispatch(exchange.getRequest(), index, requests.get(index)),
+                        requests.size())
+                .collectList()
+                .map(BatchResponseDto::new);
+    }
+
+    private Mono<BatchResponseDto.SubResponse> dispatch(ServerHttpRequest parent, int index,
+                                                        BatchRequestDto.SubRequest sub) {
+        String id = sub.getId() != null ? sub.getId() : String.valueOf(index);
+        URI uri;
+        try {
+            uri = URI.create(parent.getURI().getScheme() + "://" + parent.getURI().getRawAuthority() + sub.getPath());
+        } catch (IllegalArgumentException e) {
+            return Mono.just(error(id, HttpStatus.BAD_REQUEST, "Некорректный путь: " + sub.getPath()));
+        }
+        if (uri.getPath().equals(BATCH_PATH) || uri.getPath().startsWith(BATCH_PATH + "/")) {
+            return Mono.just(error(id, HttpStatus.BAD_REQUEST, "Вложенные batch-запросы не поддерживаются"));
+        }
+
+        byte[] body = serialize(sub);
+        BatchServerHttpRequest request = new BatchServerHttpRequest(parent, parent.getId() + "-" + id,
+                HttpMethod.valueOf(sub.getMethod()), uri, headers(parent, sub, body), body);
+        BufferingServerHttpResponse response = new BufferingServerHttpResponse(DefaultDataBufferFactory.sharedInstance);
+        // Заголовки и gzip внешнего запроса, сохранённые ForwardedHeadersWebFilter, к подзапросу не относятся
+        return httpHandler().handle(request, response)
+                .contextWrite(context -> context.delete(ForwardedHeadersWebFilter.CONTEXT_KEY)
+                        .delete(ForwardedHeadersWebFilter.ACCEPTS_GZIP_KEY))
+                .then(Mono.fromSupplier(() -> toSubResponse(id, response)));
+    }
+
+    private HttpHandler httpHandler() {
+        if (httpHandler == null) {
+            httpHandler = httpHandlerProvider.getIfAvailable(
+                    () -> WebHttpHandlerBuilder.applicationContext(applicationContext).build());
+        }
+        return httpHandler;
+    }
+
+    private HttpHeaders headers(ServerHttpRequest parent, BatchRequestDto.SubRequest sub, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (sub.getHeaders() != null) {
+            HttpHeaders requested = new HttpHeaders();
+            sub.getHeaders().forEach(requested::set);
+            SUB_REQUEST_HEADERS.forEach(name -> {
+                String value = requested.getFirst(name);
+                if (value != null) {
+                    headers.set(name, value);
+                }
+            });
+        }
+        // Подзапрос выполняется от имени автора batch-запроса, свой X-Sharer-User-Id в список не входит
+        String userId = parent.getHeaders().getFirst(X_SHARER_USER_ID);
+        if (userId != null) {
+            headers.set(X_SHARER_USER_ID, userId);
+        }
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (body.length > 0) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(body.length);
+        }
+        return headers;
+    }
+
+    private byte[] serialize(BatchRequestDto.SubRequest sub) {
+        if (sub.getBody() == null || sub.getBody().isNull()) {
+            return new byte[0];
+        }
+        try {
+            return objectMapper.writeValueAsBytes(sub.getBody());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BatchResponseDto.SubResponse toSubResponse(String id, BufferingServerHttpResponse response) {
+        if (response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return error(id, HttpStatus.BAD_GATEWAY, "Сжатый ответ нельзя вложить в batch-ответ");
+        }
+        HttpStatusCode status = response.getStatusCode() != null ? response.getStatusCode() : HttpStatus.OK;
+        Map<String, String> headers = new LinkedHashMap<>();
+        response.getHeaders().forEach((name, values) -> {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !values.isEmpty()) {
+                headers.put(name, values.get(0));
+            }
+        });
+        byte[] bytes = response.getBodyBytes();
+        boolean json = MediaType.APPLICATION_JSON.isCompatibleWith(response.getHeaders().getContentType());
+        String body = bytes.length > 0 && json ? new String(bytes, StandardCharsets.UTF_8) : null;
+        return new BatchResponseDto.SubResponse(id, status.value(), headers, body);
+    }
+
+    private BatchResponseDto.SubResponse error(String id, HttpStatus status, String message) {
+        try {
+            String body = objectMapper.writeValueAsString(Map.of("status", status.value(),
+                    "error", status.getReasonPhrase(), "message", message));
+            return new BatchResponseDto.SubResponse(id, status.value(),
+                    Map.of(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE), body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.batch;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.AbstractServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.SslInfo;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+// Подзапрос пакета, поданный в цепочку обработчиков шлюза так, будто пришёл по сети.
+// Параметры соединения (удалённый адрес, TLS) берутся у внешнего пакетного запроса
+class BatchServerHttpRequest extends AbstractServerHttpRequest {
+    private final ServerHttpRequest parent;
+    private final String id;
+    private final byte[] body;
+
+    BatchServerHttpRequest(ServerHttpRequest parent, String id, HttpMethod method, URI uri,
+                           HttpHeaders headers, byte[] body) {
+        super(method, uri, parent.getPath().contextPath().value(), headers);
+        this.parent = parent;
+        this.id = id;
+        this.body = body;
+    }
+
+    @Override
+    protected String initId() {
+        return id;
+    }
+
+    @Override
+    protected MultiValueMap<String, HttpCookie> initCookies() {
+        return new LinkedMultiValueMap<>(parent.getCookies());
+    }
+
+    @Override
+    protected SslInfo initSslInfo() {
+        return parent.getSslInfo();
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return parent.getRemoteAddress();
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return parent.getLocalAddress();
+    }
+
+    @Override
+    public Flux<DataBuffer> getBody() {
+        if (body.length == 0) {
+            return Flux.empty();
+        }
+        return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+    }
+
+    @Override
+    public <T> T getNativeRequest() {
+        return ServerHttpRequestDecorator.getNativeRequest(parent);
+    }
+}
@@ -1,131 +1,163 @@
 package ru.practicum.shareit.client;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.ForwardedHeadersWebFilter;
 
 import java.util.List;
 import java.util.Map;
 
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+@Slf4j
 public class BaseClient {
-    protected final RestTemplate rest;
+    private static final List<String> PASSTHROUGH_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.ETAG
+    );
+
+    protected final WebClient rest;
+    private final UpstreamPolicy policy;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(WebClient rest, UpstreamPolicy policy) {
         this.rest = rest;
+        this.policy = policy;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Flux<DataBuffer>>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        log.debug("Making {} request to: {}", method, path);
 
-        System.out.println("Making " + method + " request to: " + path);
-        System.out.println("Headers: " + requestEntity.getHeaders());
-        if (body != null) {
-            System.out.println("Body: " + body);
-        }
+        Mono<ResponseEntity<Flux<DataBuffer>>> call = Mono.deferContextual(context -> {
+            WebClient.RequestBodySpec request = rest.method(method)
+                    .uri(path, parameters != null ? parameters : Map.of())
+                    .headers(headers -> {
+                        headers.addAll(defaultHeaders(userId));
+                        if (method == HttpMethod.GET) {
+                            context.<HttpHeaders>getOrEmpty(ForwardedHeadersWebFilter.CONTEXT_KEY)
+                                    .ifPresent(headers::addAll);
+                        }
+                    });
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            System.err.println("=== SERVER ERROR RESPONSE ===");
-            System.err.println("Status: " + e.getStatusCode());
-            System.err.println("Headers: " + e.getResponseHeaders());
-            System.err.println("Body: " + e.getResponseBodyAsString());
-            System.err.println("=== END SERVER ERROR ===");
-
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
-        }
+            WebClient.RequestHeadersSpec<?> requestSpec = body != null ? request.bodyValue(body) : request;
 
-        System.out.println("Response status: " + shareitServerResponse.getStatusCode());
-        return prepareGatewayResponse(shareitServerResponse);
+            return requestSpec.retrieve()
+                    .onStatus(HttpStatusCode::isError, response -> Mono.empty())
+                    .toEntityFlux(DataBuffer.class)
+                    .flatMap(response -> prepareGatewayResponse(response,
+                            context.getOrDefault(ForwardedHeadersWebFilter.ACCEPTS_GZIP_KEY, false)));
+        });
+        return policy.apply(call, path);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.set(HttpHeaders.ACCEPT_ENCODING, Gzip.ENCODING);
         if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+            headers.set(X_SHARER_USER_ID, String.valueOf(userId));
         }
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static Mono<ResponseEntity<Flux<DataBuffer>>> prepareGatewayResponse(ResponseEntity<Flux<DataBuffer>> response,
+                                                                                boolean clientAcceptsGzip) {
+        if (response.getStatusCode().isError()) {
+            log.debug("Server responded with {}", response.getStatusCode());
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        HttpHeaders headers = new HttpHeaders();
+        PASSTHROUGH_HEADERS.forEach(name -> {
+            List<String> values = response.getHeaders().get(name);
+            if (values != null) {
+                headers.put(name, values);
+            }
+        });
+
+        Flux<DataBuffer> body = response.getBody();
+        if (Gzip.isGzip(headers.getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            if (!clientAcceptsGzip) {
+                headers.remove(HttpHeaders.CONTENT_ENCODING);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                body = Gzip.decompress(body);
+            }
         }
 
-        return responseBuilder.build();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode()).headers(headers);
+        if (headers.getContentType() == null) {
+            // 304 и пустые ответы отдаём без тела, иначе WebFlux подберёт для Flux тип text/event-stream
+            return body.doOnNext(DataBufferUtils::release)
+                    .then(Mono.just(builder.build()));
+        }
+        return Mono.just(builder.body(body));
     }
-}
\ No newline at end of file
+}
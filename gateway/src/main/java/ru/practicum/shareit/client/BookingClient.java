@@ -2,47 +2,82 @@ package ru.practicum.shareit.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.dto.BookingBulkDecisionDto;
 import ru.practicum.shareit.dto.BookingCreateDto;
 
 import java.util.Map;
 
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT =
+            new ParameterizedTypeReference<>() {
+            };
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         UpstreamPolicies policies) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .build(),
+                policies.forClient("bookings")
         );
     }
 
-    public ResponseEntity<Object> create(Long userId, BookingCreateDto dto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(Long userId, BookingCreateDto dto) {
         return post("", userId, dto);
     }
 
-    public ResponseEntity<Object> approve(Long userId, Long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> approve(Long userId, Long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getById(Long userId, Long bookingId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> decideAll(Long userId, BookingBulkDecisionDto dto) {
+        return patch("/bulk", userId, dto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllByBooker(Long userId, String state) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllByBooker(Long userId, String state) {
         Map<String, Object> parameters = Map.of("state", state);
         return get("?state={state}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllByOwner(Long userId, String state) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllByOwner(Long userId, String state) {
         Map<String, Object> parameters = Map.of("state", state);
         return get("/owner?state={state}", userId, parameters);
     }
-}
\ No newline at end of file
+
+    // Пробрасывает поток событий сервера по одному событию мимо политики upstream: её таймаут и bulkhead рассчитаны
+    // на короткие вызовы, а поток живёт, пока клиент не отключится. Без gzip: компрессор придерживал бы события,
+    // пока не заполнится буфер
+    public Flux<ServerSentEvent<String>> stream(Long userId) {
+        return rest.get()
+                .uri("/stream")
+                .header(X_SHARER_USER_ID, String.valueOf(userId))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> new ResponseStatusException(response.statusCode(), body)))
+                .bodyToFlux(EVENT);
+    }
+}
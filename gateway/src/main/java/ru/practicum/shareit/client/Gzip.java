@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+
+final class Gzip {
+    static final String ENCODING = "gzip";
+
+    private Gzip() {
+    }
+
+    static boolean isGzip(String contentEncoding) {
+        return contentEncoding != null && ENCODING.equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    static Flux<DataBuffer> decompress(Flux<DataBuffer> body) {
+        return DataBufferUtils.join(body)
+                .map(Gzip::decompress)
+                .flux();
+    }
+
+    private static DataBuffer decompress(DataBuffer compressed) {
+        try (InputStream input = new GZIPInputStream(compressed.asInputStream(true))) {
+            return DefaultDataBufferFactory.sharedInstance.wrap(input.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,13 +2,17 @@ package ru.practicum.shareit.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.dto.CommentCreateDto;
 import ru.practicum.shareit.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -16,40 +20,53 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      UpstreamPolicies policies) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .build(),
+                policies.forClient("items")
         );
     }
 
-    public ResponseEntity<Object> create(Long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(Long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> update(Long userId, Long itemId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(Long userId, Long itemId, ItemDto itemDto) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> getById(Long userId, Long itemId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(Long userId, Long itemId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getAllByOwner(Long userId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllByOwner(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> search(String text) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> search(String text) {
         Map<String, Object> parameters = Map.of("text", text);
         return get("/search?text={text}", null, parameters);
     }
 
-    public ResponseEntity<Object> delete(Long userId, Long itemId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> searchAvailable(String text, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of("text", text, "from", from, "to", to);
+        return get("/search?text={text}&from={from}&to={to}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getCalendar(Long userId, Long itemId, LocalDateTime from,
+                                                              LocalDateTime to, boolean includeWaiting) {
+        Map<String, Object> parameters = Map.of("from", from, "to", to, "includeWaiting", includeWaiting);
+        return get("/" + itemId + "/calendar?from={from}&to={to}&includeWaiting={includeWaiting}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> delete(Long userId, Long itemId) {
         return delete("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> addComment(Long userId, Long itemId, CommentCreateDto dto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(Long userId, Long itemId, CommentCreateDto dto) {
         return post("/" + itemId + "/comment", userId, dto);
     }
 }
\ No newline at end of file
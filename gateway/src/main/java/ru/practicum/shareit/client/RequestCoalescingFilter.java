@@ -0,0 +1,143 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.CoalescingProperties;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+// Single-flight для идемпотентных GET: одновременные одинаковые запросы к настроенному маршруту делят
+// один вызов upstream и его буферизованные байты ответа
+public class RequestCoalescingFilter implements ExchangeFilterFunction {
+    private final List<CoalescedRoute> routes;
+    private final ConcurrentMap<String, Mono<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new CoalescedRoute(route, meterRegistry))
+                .toList();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (request.method() != HttpMethod.GET) {
+            return next.exchange(request);
+        }
+        CoalescedRoute route = findRoute(request.url().getRawPath());
+        if (route == null) {
+            return next.exchange(request);
+        }
+
+        String key = key(request, route.userScoped);
+        return Mono.defer(() -> {
+            AtomicReference<Mono<BufferedResponse>> self = new AtomicReference<>();
+            Mono<BufferedResponse> call = next.exchange(request)
+                    .flatMap(BufferedResponse::read)
+                    .doOnEach(signal -> inFlight.remove(key, self.get()))
+                    .cache();
+            self.set(call);
+            Mono<BufferedResponse> shared = inFlight.putIfAbsent(key, call);
+            if (shared == null) {
+                route.leaders.increment();
+                shared = call;
+            } else {
+                route.joined.increment();
+            }
+            return shared.map(BufferedResponse::toClientResponse);
+        });
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private CoalescedRoute findRoute(String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (CoalescedRoute route : routes) {
+            if (route.pattern.matches(container)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static String key(ClientRequest request, boolean userScoped) {
+        String userId = userScoped ? request.headers().getFirst(X_SHARER_USER_ID) : null;
+        String ifNoneMatch = request.headers().getFirst(HttpHeaders.IF_NONE_MATCH);
+        return request.url() + "|" + (userId != null ? userId : "") + "|" + (ifNoneMatch != null ? ifNoneMatch : "");
+    }
+
+    private static final class CoalescedRoute {
+        private final PathPattern pattern;
+        private final boolean userScoped;
+        private final Counter leaders;
+        private final Counter joined;
+
+        private CoalescedRoute(CoalescingProperties.Route route, MeterRegistry meterRegistry) {
+            this.pattern = PathPatternParser.defaultInstance.parse(route.getPath());
+            this.userScoped = route.isUserScoped();
+            this.leaders = Counter.builder("gateway.coalescing.requests")
+                    .tag("route", route.getPath())
+                    .tag("outcome", "upstream")
+                    .register(meterRegistry);
+            this.joined = Counter.builder("gateway.coalescing.requests")
+                    .tag("route", route.getPath())
+                    .tag("outcome", "coalesced")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.coalescing.dedup.ratio", this, CoalescedRoute::dedupRatio)
+                    .tag("route", route.getPath())
+                    .register(meterRegistry);
+        }
+
+        private double dedupRatio() {
+            double total = leaders.count() + joined.count();
+            return total == 0 ? 0 : joined.count() / total;
+        }
+    }
+
+    private record BufferedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+        private static Mono<BufferedResponse> read(ClientResponse response) {
+            return DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers()))
+                    .map(buffer -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .map(bytes -> new BufferedResponse(response.statusCode(),
+                            HttpHeaders.readOnlyHttpHeaders(response.headers().asHttpHeaders()), bytes));
+        }
+
+        private ClientResponse toClientResponse() {
+            Flux<DataBuffer> content = Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+            return ClientResponse.create(status)
+                    .headers(target -> target.addAll(headers))
+                    .body(content)
+                    .build();
+        }
+    }
+}
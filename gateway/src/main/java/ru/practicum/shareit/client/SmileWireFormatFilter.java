@@ -0,0 +1,134 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+// Переводит участок шлюз — сервер на Smile: тела запросов кодируются в Smile, Smile предпочтителен в Accept,
+// а ответы в Smile перекодируются обратно в JSON для внешнего клиента по мере прихода буферов, через
+// неблокирующий парсер. Сжатый Smile сначала распаковывается целиком (Gzip.decompress собирает тело),
+// JSON шлюз сжимает сам, если клиент об этом просил
+public class SmileWireFormatFilter implements ExchangeFilterFunction {
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private static final List<MediaType> ACCEPT = List.of(APPLICATION_SMILE,
+            MediaType.parseMediaType("application/json;q=0.9"));
+
+    private final SmileFactory smileFactory = new SmileFactory();
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        ClientRequest smileRequest = ClientRequest.from(request)
+                .headers(headers -> {
+                    if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(headers.getContentType())) {
+                        headers.setContentType(APPLICATION_SMILE);
+                    }
+                    // поток событий остаётся text/event-stream, иначе сервер ответит 406
+                    if (!headers.getAccept().contains(MediaType.TEXT_EVENT_STREAM)) {
+                        headers.setAccept(ACCEPT);
+                    }
+                })
+                .build();
+        return next.exchange(smileRequest).map(this::toJson);
+    }
+
+    private ClientResponse toJson(ClientResponse response) {
+        MediaType contentType = response.headers().contentType().orElse(null);
+        if (!APPLICATION_SMILE.equalsTypeAndSubtype(contentType)) {
+            return response;
+        }
+        boolean gzipped = Gzip.isGzip(response.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        return response.mutate()
+                .headers(headers -> {
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers.remove(HttpHeaders.CONTENT_ENCODING);
+                })
+                .body(body -> transcode(gzipped ? Gzip.decompress(body) : body))
+                .build();
+    }
+
+    private Flux<DataBuffer> transcode(Flux<DataBuffer> smile) {
+        return Flux.using(SmileToJson::new,
+                transcoder -> smile.map(transcoder::feed).concatWith(Mono.fromCallable(transcoder::finish)),
+                SmileToJson::close)
+                .filter(json -> json.readableByteCount() > 0);
+    }
+
+    // Парсер отдаёт токены, как только они целиком пришли, и NOT_AVAILABLE, когда нужен следующий буфер;
+    // готовый JSON уходит дальше после каждого буфера, не дожидаясь конца тела
+    private class SmileToJson {
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        private final JsonGenerator generator;
+
+        SmileToJson() throws IOException {
+            parser = smileFactory.createNonBlockingByteArrayParser();
+            feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            generator = jsonFactory.createGenerator(json);
+        }
+
+        DataBuffer feed(DataBuffer smile) {
+            byte[] bytes = new byte[smile.readableByteCount()];
+            smile.read(bytes);
+            DataBufferUtils.release(smile);
+            try {
+                feeder.feedInput(bytes, 0, bytes.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return drain();
+        }
+
+        DataBuffer finish() {
+            feeder.endOfInput();
+            return drain();
+        }
+
+        private DataBuffer drain() {
+            try {
+                JsonToken token = parser.nextToken();
+                while (token != null && token != JsonToken.NOT_AVAILABLE) {
+                    generator.copyCurrentEvent(parser);
+                    token = parser.nextToken();
+                }
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            byte[] chunk = json.toByteArray();
+            json.reset();
+            return DefaultDataBufferFactory.sharedInstance.wrap(chunk);
+        }
+
+        void close() {
+            try {
+                generator.close();
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.config.UpstreamProperties;
+
+import java.time.Duration;
+
+// Создаёт UpstreamPolicy каждого клиента. У каждого клиента свои bulkhead и circuit breaker,
+// поэтому медленная подсистема исчерпывает только свои разрешения
+public class UpstreamPolicies {
+    private final UpstreamProperties properties;
+    private final BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+
+    public UpstreamPolicies(UpstreamProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+    }
+
+    public UpstreamPolicy forClient(String name) {
+        UpstreamProperties.Policy policy = properties.forClient(name);
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(policy.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(policy.getSlidingWindowSize())
+                .minimumNumberOfCalls(policy.getMinimumNumberOfCalls())
+                .failureRateThreshold(policy.getFailureRateThreshold())
+                .waitDurationInOpenState(policy.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(policy.getPermittedCallsInHalfOpenState())
+                .recordResult(UpstreamPolicies::isServerError)
+                .build();
+        return new UpstreamPolicy(bulkheads.bulkhead(name, bulkheadConfig),
+                circuitBreakers.circuitBreaker(name, circuitBreakerConfig), policy);
+    }
+
+    private static boolean isServerError(Object result) {
+        return result instanceof ResponseEntity<?> response && response.getStatusCode().is5xxServerError();
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.UpstreamProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Bulkhead, circuit breaker и таймауты по маршрутам для вызовов одного клиента.
+// Вызов без разрешения или при открытой цепи падает сразу, а не встаёт в очередь
+public class UpstreamPolicy {
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration timeout;
+    private final List<RouteTimeout> routes;
+
+    UpstreamPolicy(Bulkhead bulkhead, CircuitBreaker circuitBreaker, UpstreamProperties.Policy policy) {
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.timeout = policy.getTimeout();
+        this.routes = policy.getRoutes().stream()
+                .map(route -> new RouteTimeout(PathPatternParser.defaultInstance.parse(route.getPath()), route.getTimeout()))
+                .toList();
+    }
+
+    // Разрешение bulkhead и таймаут действуют до конца тела ответа, а не до прихода заголовков.
+    // path — путь относительно префикса клиента, возможно с шаблоном query
+    Mono<ResponseEntity<Flux<DataBuffer>>> apply(Mono<ResponseEntity<Flux<DataBuffer>>> call, String path) {
+        Duration timeout = timeoutFor(path);
+        return Mono.defer(() -> {
+                    if (!bulkhead.tryAcquirePermission()) {
+                        return Mono.error(BulkheadFullException.createBulkheadFullException(bulkhead));
+                    }
+                    Permit permit = new Permit();
+                    long deadline = System.nanoTime() + timeout.toNanos();
+                    return call.timeout(timeout)
+                            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                            .map(response -> holdUntilBodyEnds(response, permit, deadline))
+                            .doOnError(error -> permit.release())
+                            .doOnCancel(permit::releaseIfBodyNotTaken)
+                            .switchIfEmpty(Mono.fromRunnable(permit::release));
+                })
+                .onErrorMap(this::translate);
+    }
+
+    Duration timeoutFor(String path) {
+        int query = path.indexOf('?');
+        PathContainer container = PathContainer.parsePath(query >= 0 ? path.substring(0, query) : path);
+        for (RouteTimeout route : routes) {
+            if (route.pattern.matches(container)) {
+                return route.timeout;
+            }
+        }
+        return timeout;
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> holdUntilBodyEnds(ResponseEntity<Flux<DataBuffer>> response,
+                                                              Permit permit, long deadline) {
+        Flux<DataBuffer> body = response.getBody();
+        if (body == null) {
+            permit.release();
+            return response;
+        }
+        permit.bodyTaken();
+        Flux<DataBuffer> guarded = body
+                .timeout(untilDeadline(deadline), buffer -> untilDeadline(deadline))
+                .onErrorMap(this::translate)
+                .doOnTerminate(permit::release)
+                .doOnCancel(permit::release);
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(guarded);
+    }
+
+    private static Mono<Long> untilDeadline(long deadline) {
+        return Mono.delay(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    }
+
+    private Throwable translate(Throwable error) {
+        if (error instanceof BulkheadFullException) {
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Слишком много одновременных запросов к " + bulkhead.getName(), error);
+        }
+        if (error instanceof CallNotPermittedException) {
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Сервис " + circuitBreaker.getName() + " временно недоступен", error);
+        }
+        if (error instanceof TimeoutException) {
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                    "Сервис " + circuitBreaker.getName() + " не ответил вовремя", error);
+        }
+        return error;
+    }
+
+    // Разрешение возвращается ровно один раз: по ошибке или отмене до заголовков либо по завершении тела
+    private class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean bodyTaken;
+
+        void bodyTaken() {
+            bodyTaken = true;
+        }
+
+        void releaseIfBodyNotTaken() {
+            if (!bodyTaken) {
+                release();
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.onComplete();
+            }
+        }
+    }
+
+    private record RouteTimeout(PathPattern pattern, Duration timeout) {
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Запоминает заголовки клиента, которые BaseClient пробрасывает на сервер (валидаторы условных запросов),
+// и отдаёт их исходящему вызову через контекст Reactor вместе с признаком, принимает ли клиент gzip,
+// чтобы сжатые тела upstream проходили как есть
+@Component
+public class ForwardedHeadersWebFilter implements WebFilter {
+    public static final String CONTEXT_KEY = ForwardedHeadersWebFilter.class.getName();
+    public static final String ACCEPTS_GZIP_KEY = CONTEXT_KEY + ".acceptsGzip";
+
+    private static final List<String> FORWARDED_HEADERS = List.of(HttpHeaders.IF_NONE_MATCH);
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpHeaders forwarded = new HttpHeaders();
+        FORWARDED_HEADERS.forEach(name -> {
+            List<String> values = exchange.getRequest().getHeaders().get(name);
+            if (values != null) {
+                forwarded.put(name, values);
+            }
+        });
+
+        boolean acceptsGzip = acceptsGzip(exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT_ENCODING));
+        if (forwarded.isEmpty() && !acceptsGzip) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange)
+                .contextWrite(context -> {
+                    if (!forwarded.isEmpty()) {
+                        context = context.put(CONTEXT_KEY, HttpHeaders.readOnlyHttpHeaders(forwarded));
+                    }
+                    return acceptsGzip ? context.put(ACCEPTS_GZIP_KEY, true) : context;
+                });
+    }
+
+    private static boolean acceptsGzip(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return acceptEncoding.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(coding -> coding.trim().toLowerCase(Locale.ROOT).replace(" ", ""))
+                .anyMatch(coding -> (coding.equals("gzip") || coding.startsWith("gzip;"))
+                        && !coding.matches("gzip;q=0(\\.0*)?"));
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.shareit.balancer.ActiveHealthChecker;
+import ru.practicum.shareit.balancer.LoadBalancer;
+import ru.practicum.shareit.balancer.LoadBalancingFilter;
+
+@Configuration
+@EnableConfigurationProperties(LoadBalancerProperties.class)
+@ConditionalOnProperty(prefix = "shareit-server.load-balancer", name = "enabled", havingValue = "true")
+public class LoadBalancerConfig {
+
+    @Bean
+    public LoadBalancer loadBalancer(LoadBalancerProperties properties, MeterRegistry meterRegistry) {
+        return new LoadBalancer(properties, meterRegistry);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ActiveHealthChecker activeHealthChecker(LoadBalancer loadBalancer, LoadBalancerProperties properties,
+                                                   ConnectionProvider shareitServerConnectionProvider) {
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(shareitServerConnectionProvider)))
+                .build();
+        return new ActiveHealthChecker(loadBalancer, properties.getHealthCheck(), webClient);
+    }
+
+    @Bean
+    @Order(200)
+    public WebClientCustomizer loadBalancing(LoadBalancer loadBalancer) {
+        LoadBalancingFilter filter = new LoadBalancingFilter(loadBalancer);
+        return builder -> builder.filter(filter);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.practicum.shareit.balancer.LoadBalancingStrategy;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.load-balancer")
+public class LoadBalancerProperties {
+    private boolean enabled = false;
+    private List<URI> instances = new ArrayList<>();
+    private LoadBalancingStrategy strategy = LoadBalancingStrategy.LEAST_OUTSTANDING;
+    private int virtualNodes = 100;
+    private HealthCheck healthCheck = new HealthCheck();
+    private Outlier outlier = new Outlier();
+
+    @Getter
+    @Setter
+    public static class HealthCheck {
+        private String path = "/actuator/health";
+        private Duration interval = Duration.ofSeconds(5);
+        private Duration timeout = Duration.ofSeconds(2);
+        private int unhealthyThreshold = 2;
+        private int healthyThreshold = 1;
+    }
+
+    @Getter
+    @Setter
+    public static class Outlier {
+        private int consecutiveFailures = 5;
+        private Duration ejectionTime = Duration.ofSeconds(30);
+        private int maxEjectionPercent = 50;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private int capacity = 100;
+    private double refillPerSecond = 50;
+    private Duration idleTimeout = Duration.ofMinutes(5);
+    private List<String> excludedPaths = new ArrayList<>(List.of("/actuator/**"));
+    private List<Route> routes = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        private String path;
+        private String method;
+        private int capacity;
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Настройки изоляции вызовов сервера, по записи на клиента (items, bookings, users, requests).
+// Клиенты без записи получают значения по умолчанию ниже
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.upstream")
+public class UpstreamProperties {
+    private Map<String, Policy> clients = new HashMap<>();
+
+    public Policy forClient(String name) {
+        return clients.getOrDefault(name, new Policy());
+    }
+
+    @Getter
+    @Setter
+    public static class Policy {
+        private int maxConcurrentCalls = 50;
+        private Duration timeout = Duration.ofSeconds(5);
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private float failureRateThreshold = 50;
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+        private int permittedCallsInHalfOpenState = 3;
+        private List<Route> routes = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Route {
+        private String path;
+        private Duration timeout;
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.shareit.client.RequestCoalescingFilter;
+import ru.practicum.shareit.client.SmileWireFormatFilter;
+import ru.practicum.shareit.client.UpstreamPolicies;
+
+import java.time.Duration;
+
+// WebClient — единственный клиент к серверу: шлюз целиком работает на Netty, и блокирующий RestTemplate
+// занимал бы event-loop; вторая, блокирующая реализация удвоила бы клиенты, фильтры и тесты
+@Configuration
+@EnableConfigurationProperties({CoalescingProperties.class, UpstreamProperties.class})
+public class WebClientConfig {
+
+    @Bean
+    public ConnectionProvider shareitServerConnectionProvider(
+            @Value("${shareit-server.pool.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.pool.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${shareit-server.pool.max-idle-time:30s}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .maxIdleTime(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClientCustomizer shareitServerConnector(
+            ConnectionProvider shareitServerConnectionProvider,
+            @Value("${shareit-server.connect-timeout:5s}") Duration connectTimeout) {
+        HttpClient httpClient = HttpClient.create(shareitServerConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis());
+        return builder -> builder.clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+
+    @Bean
+    public UpstreamPolicies upstreamPolicies(UpstreamProperties properties, MeterRegistry meterRegistry) {
+        return new UpstreamPolicies(properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit-gateway.coalescing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RequestCoalescingFilter requestCoalescingFilter(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        return new RequestCoalescingFilter(properties, meterRegistry);
+    }
+
+    @Bean
+    @Order(100)
+    @ConditionalOnProperty(prefix = "shareit-gateway.coalescing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public WebClientCustomizer requestCoalescing(RequestCoalescingFilter requestCoalescingFilter) {
+        return builder -> builder.filter(requestCoalescingFilter);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit-server.smile", name = "enabled", havingValue = "true")
+    public CodecCustomizer smileCodecs(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SmileWireFormatFilter.APPLICATION_SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SmileWireFormatFilter.APPLICATION_SMILE));
+        };
+    }
+
+    @Bean
+    @Order(300)
+    @ConditionalOnProperty(prefix = "shareit-server.smile", name = "enabled", havingValue = "true")
+    public WebClientCustomizer smileWireFormat() {
+        SmileWireFormatFilter filter = new SmileWireFormatFilter();
+        return builder -> builder.filter(filter);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.batch.BatchDispatcher;
+import ru.practicum.shareit.dto.BatchRequestDto;
+import ru.practicum.shareit.dto.BatchResponseDto;
+
+@RestController
+@RequestMapping("/batch")
+@RequiredArgsConstructor
+@Validated
+public class BatchController {
+    private final BatchDispatcher batchDispatcher;
+
+    @PostMapping
+    public Mono<BatchResponseDto> execute(@Valid @RequestBody BatchRequestDto batch, ServerWebExchange exchange) {
+        return batchDispatcher.dispatch(exchange, batch);
+    }
+}
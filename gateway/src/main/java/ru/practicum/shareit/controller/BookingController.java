@@ -2,10 +2,16 @@ package ru.practicum.shareit.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BookingClient;
+import ru.practicum.shareit.dto.BookingBulkDecisionDto;
 import ru.practicum.shareit.dto.BookingCreateDto;
 
 import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
@@ -18,36 +24,48 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @Valid @RequestBody BookingCreateDto dto) {
         return bookingClient.create(userId, dto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approve(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> approve(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @PathVariable Long bookingId,
             @RequestParam Boolean approved) {
         return bookingClient.approve(userId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> decideAll(
+            @RequestHeader(X_SHARER_USER_ID) Long userId,
+            @Valid @RequestBody BookingBulkDecisionDto dto) {
+        return bookingClient.decideAll(userId, dto);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> stream(@RequestHeader(X_SHARER_USER_ID) Long userId) {
+        return bookingClient.stream(userId);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getById(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @PathVariable Long bookingId) {
         return bookingClient.getById(userId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllByBooker(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllByBooker(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @RequestParam(defaultValue = "ALL") String state) {
         return bookingClient.getAllByBooker(userId, state);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllByOwner(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllByOwner(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @RequestParam(defaultValue = "ALL") String state) {
         return bookingClient.getAllByOwner(userId, state);
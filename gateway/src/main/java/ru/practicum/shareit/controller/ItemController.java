@@ -2,13 +2,21 @@ package ru.practicum.shareit.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.ItemClient;
 import ru.practicum.shareit.dto.CommentCreateDto;
 import ru.practicum.shareit.dto.ItemDto;
 
+import java.time.LocalDateTime;
+
 import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
 
 @RestController
@@ -19,14 +27,14 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @Valid @RequestBody ItemDto itemDto) {
         return itemClient.create(userId, itemDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @PathVariable Long itemId,
             @RequestBody ItemDto itemDto) {
@@ -34,32 +42,54 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getById(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @PathVariable Long itemId) {
         return itemClient.getById(userId, itemId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllByOwner(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllByOwner(
             @RequestHeader(X_SHARER_USER_ID) Long userId) {
         return itemClient.getAllByOwner(userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestParam String text) {
-        return itemClient.search(text);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> search(
+            @RequestParam String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (from == null && to == null) {
+            return itemClient.search(text);
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Окно поиска задаётся парой from < to");
+        }
+        return itemClient.searchAvailable(text, from, to);
+    }
+
+    @GetMapping("/{itemId}/calendar")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getCalendar(
+            @RequestHeader(X_SHARER_USER_ID) Long userId,
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean includeWaiting) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Окно календаря задаётся парой from < to");
+        }
+        return itemClient.getCalendar(userId, itemId, from, to, includeWaiting);
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> delete(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> delete(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @PathVariable Long itemId) {
         return itemClient.delete(userId, itemId);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @PathVariable Long itemId,
             @Valid @RequestBody CommentCreateDto dto) {
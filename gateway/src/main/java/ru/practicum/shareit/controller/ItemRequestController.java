@@ -4,9 +4,12 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.ItemRequestClient;
 import ru.practicum.shareit.dto.ItemRequestCreateDto;
 
@@ -20,20 +23,20 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(
             @RequestHeader(X_SHARER_USER_ID) Long requestorId,
             @Valid @RequestBody ItemRequestCreateDto dto) {
         return itemRequestClient.create(requestorId, dto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getOwn(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getOwn(
             @RequestHeader(X_SHARER_USER_ID) Long requestorId) {
         return itemRequestClient.getOwnRequests(requestorId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAll(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
             @Positive @RequestParam(defaultValue = "10") Integer size) {
@@ -41,7 +44,7 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getById(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
             @PathVariable Long requestId) {
         return itemRequestClient.getById(userId, requestId);
@@ -2,9 +2,12 @@ package ru.practicum.shareit.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.UserClient;
 import ru.practicum.shareit.dto.UserDto;
 
@@ -16,27 +19,27 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@Valid @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(@Valid @RequestBody UserDto userDto) {
         return userClient.create(userDto);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> update(@PathVariable Long id, @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(@PathVariable Long id, @RequestBody UserDto userDto) {
         return userClient.update(id, userDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getById(@PathVariable Long id) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(@PathVariable Long id) {
         return userClient.getById(id);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAll() {
         return userClient.getAll();
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> delete(@PathVariable Long id) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> delete(@PathVariable Long id) {
         return userClient.delete(id);
     }
 }
\ No newline at end of file
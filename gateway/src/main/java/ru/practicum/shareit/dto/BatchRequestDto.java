@@ -0,0 +1,44 @@
+package ru.practicum.shareit.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequestDto {
+    public static final int MAX_REQUESTS = 20;
+
+    @NotEmpty(message = "Список запросов не может быть пустым")
+    @Size(max = MAX_REQUESTS, message = "В batch не больше " + MAX_REQUESTS + " запросов")
+    private List<@Valid SubRequest> requests;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubRequest {
+        private String id;
+
+        @NotBlank
+        @Pattern(regexp = "GET|POST|PUT|PATCH|DELETE", message = "Неподдерживаемый метод")
+        private String method;
+
+        @NotBlank
+        @Pattern(regexp = "/.*", message = "Путь должен начинаться с /")
+        private String path;
+
+        private Map<String, String> headers;
+
+        private JsonNode body;
+    }
+}
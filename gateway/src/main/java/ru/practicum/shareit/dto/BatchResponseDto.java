@@ -0,0 +1,28 @@
+package ru.practicum.shareit.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponseDto {
+    private List<SubResponse> responses;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubResponse {
+        private String id;
+        private int status;
+        private Map<String, String> headers;
+
+        @JsonRawValue
+        private String body;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBulkDecisionDto {
+    public static final int MAX_DECISIONS = 100;
+
+    @NotEmpty(message = "Список решений не может быть пустым")
+    @Size(max = MAX_DECISIONS, message = "За раз не больше " + MAX_DECISIONS + " решений")
+    private List<@Valid @NotNull Decision> decisions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Decision {
+        @NotNull
+        @Positive
+        private Long bookingId;
+
+        @NotNull
+        private Boolean approved;
+    }
+}
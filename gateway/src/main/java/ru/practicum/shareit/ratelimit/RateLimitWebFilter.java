@@ -0,0 +1,150 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.RateLimitProperties;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+// Контроль допуска перед контроллерами: свой token bucket на маршрут и X-Sharer-User-Id
+// (удалённый адрес для анонимных вызовов). Полные корзины выбрасываются после таймаута простоя
+public class RateLimitWebFilter implements WebFilter {
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final List<PathPattern> excludedPaths;
+    private final List<LimitedRoute> routes = new ArrayList<>();
+    private final LimitedRoute defaultRoute;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final long idleNanos;
+    private final AtomicLong nextSweep;
+    private final LongSupplier nanoTime;
+
+    public RateLimitWebFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimitWebFilter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.excludedPaths = properties.getExcludedPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            routes.add(new LimitedRoute(route.getMethod(), route.getPath(),
+                    route.getCapacity(), route.getRefillPerSecond(), meterRegistry));
+        }
+        this.defaultRoute = new LimitedRoute(null, null,
+                properties.getCapacity(), properties.getRefillPerSecond(), meterRegistry);
+        this.idleNanos = properties.getIdleTimeout().toNanos();
+        this.nanoTime = nanoTime;
+        this.nextSweep = new AtomicLong(nanoTime.getAsLong() + idleNanos);
+        Gauge.builder("gateway.ratelimit.buckets", buckets, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        PathContainer path = request.getPath().pathWithinApplication();
+        if (excludedPaths.stream().anyMatch(pattern -> pattern.matches(path))) {
+            return chain.filter(exchange);
+        }
+
+        LimitedRoute route = findRoute(request.getMethod(), path);
+        long now = nanoTime.getAsLong();
+        sweepIfDue(now);
+
+        String key = route.id + "|" + clientKey(request);
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(route.capacity, route.refillPerSecond, now));
+        }
+
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            route.allowed.increment();
+            return chain.filter(exchange);
+        }
+        route.rejected.increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        return Mono.error(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                "Превышен лимит запросов, повторите через " + retryAfter + " с"));
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private LimitedRoute findRoute(HttpMethod method, PathContainer path) {
+        for (LimitedRoute route : routes) {
+            if ((route.method == null || route.method.equals(method)) && route.pattern.matches(path)) {
+                return route;
+            }
+        }
+        return defaultRoute;
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now >= due && nextSweep.compareAndSet(due, now + idleNanos)) {
+            buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+        }
+    }
+
+    private static String clientKey(ServerHttpRequest request) {
+        String userId = request.getHeaders().getFirst(X_SHARER_USER_ID);
+        if (userId != null) {
+            return userId;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getHostString() : "unknown";
+    }
+
+    private static final class LimitedRoute {
+        private final String id;
+        private final HttpMethod method;
+        private final PathPattern pattern;
+        private final int capacity;
+        private final double refillPerSecond;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private LimitedRoute(String method, String path, int capacity, double refillPerSecond,
+                             MeterRegistry meterRegistry) {
+            this.method = method != null ? HttpMethod.valueOf(method) : null;
+            this.pattern = path != null ? PathPatternParser.defaultInstance.parse(path) : null;
+            this.id = path != null ? (method != null ? method + " " : "") + path : DEFAULT_ROUTE;
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+            this.allowed = Counter.builder("gateway.ratelimit.requests")
+                    .tag("route", id)
+                    .tag("outcome", "allowed")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("gateway.ratelimit.requests")
+                    .tag("route", id)
+                    .tag("outcome", "rejected")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.balancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.config.LoadBalancerProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldPickInstanceWithFewestOutstandingRequestsTest() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.LEAST_OUTSTANDING, 3);
+        List<ServerInstance> instances = balancer.getInstances();
+        instances.get(0).getOutstanding().set(4);
+        instances.get(1).getOutstanding().set(1);
+        instances.get(2).getOutstanding().set(3);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(balancer.choose("1")).isSameAs(instances.get(1));
+        }
+    }
+
+    @Test
+    void shouldSkipUnhealthyInstancesTest() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.LEAST_OUTSTANDING, 2);
+        ServerInstance down = balancer.getInstances().get(0);
+        down.recordCheck(false, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(balancer.choose(null)).isSameAs(balancer.getInstances().get(1));
+        }
+    }
+
+    @Test
+    void shouldKeepUsersOnSameInstanceAndMoveOnlyUsersOfFailedInstanceTest() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.CONSISTENT_HASH, 3);
+        Map<String, ServerInstance> before = new HashMap<>();
+        for (int user = 0; user < 300; user++) {
+            before.put(String.valueOf(user), balancer.choose(String.valueOf(user)));
+        }
+        assertThat(before.values()).containsAll(balancer.getInstances());
+
+        ServerInstance failed = balancer.getInstances().get(2);
+        failed.recordCheck(false, 1, 1);
+
+        before.forEach((user, instance) -> {
+            ServerInstance after = balancer.choose(user);
+            if (instance == failed) {
+                assertThat(after).isNotSameAs(failed);
+            } else {
+                assertThat(after).isSameAs(instance);
+            }
+        });
+    }
+
+    @Test
+    void shouldEjectOutlierAfterConsecutiveFailuresAndReturnItLaterTest() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.LEAST_OUTSTANDING, 2);
+        ServerInstance outlier = balancer.getInstances().get(0);
+
+        for (int i = 0; i < 3; i++) {
+            balancer.recordResult(outlier, false);
+        }
+        assertThat(outlier.isAvailable(now.get())).isFalse();
+        assertThat(meterRegistry.get("gateway.lb.ejections").tag("instance", outlier.toString()).counter().count())
+                .isEqualTo(1);
+
+        now.addAndGet(Duration.ofSeconds(31).toMillis());
+        assertThat(outlier.isAvailable(now.get())).isTrue();
+    }
+
+    @Test
+    void shouldNotEjectMoreThanAllowedPercentTest() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.LEAST_OUTSTANDING, 2);
+        ServerInstance first = balancer.getInstances().get(0);
+        ServerInstance second = balancer.getInstances().get(1);
+
+        for (int i = 0; i < 3; i++) {
+            balancer.recordResult(first, false);
+            balancer.recordResult(second, false);
+        }
+
+        assertThat(first.isAvailable(now.get())).isFalse();
+        assertThat(second.isAvailable(now.get())).isTrue();
+    }
+
+    @Test
+    void shouldFallBackToAllInstancesWhenNoneAvailableTest() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.CONSISTENT_HASH, 2);
+        balancer.getInstances().forEach(instance -> instance.recordCheck(false, 1, 1));
+
+        assertThat(balancer.choose("1")).isNotNull();
+        assertThat(balancer.choose(null)).isNotNull();
+    }
+
+    private LoadBalancer balancer(LoadBalancingStrategy strategy, int size) {
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.setStrategy(strategy);
+        for (int i = 0; i < size; i++) {
+            properties.getInstances().add(URI.create("http://server-" + i + ":9090"));
+        }
+        properties.getOutlier().setConsecutiveFailures(3);
+        return new LoadBalancer(properties, meterRegistry, now::get);
+    }
+}
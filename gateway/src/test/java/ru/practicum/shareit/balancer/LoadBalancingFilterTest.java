@@ -0,0 +1,126 @@
+package ru.practicum.shareit.balancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import ru.practicum.shareit.config.LoadBalancerProperties;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+class LoadBalancingFilterTest {
+
+    private final AtomicBoolean secondHealthy = new AtomicBoolean(true);
+    private final Sinks.One<String> slowTail = Sinks.one();
+    private DisposableServer first;
+    private DisposableServer second;
+    private LoadBalancer loadBalancer;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        first = server("first", new AtomicBoolean(true), slowTail);
+        second = server("second", secondHealthy, slowTail);
+
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.setStrategy(LoadBalancingStrategy.CONSISTENT_HASH);
+        properties.setInstances(List.of(URI.create("http://localhost:" + first.port()),
+                URI.create("http://localhost:" + second.port())));
+        loadBalancer = new LoadBalancer(properties, new SimpleMeterRegistry());
+        webClient = WebClient.builder()
+                .baseUrl("http://shareit-server:9090")
+                .filter(new LoadBalancingFilter(loadBalancer))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.disposeNow();
+        second.disposeNow();
+    }
+
+    @Test
+    void shouldRouteUserToSameInstanceKeepingPathAndQueryTest() {
+        String reply = call("42");
+
+        assertThat(reply).endsWith("/items/search?text=drill");
+        for (int i = 0; i < 5; i++) {
+            assertThat(call("42")).isEqualTo(reply);
+        }
+        assertThat(loadBalancer.getInstances()).allMatch(instance -> instance.getOutstanding().get() == 0);
+    }
+
+    @Test
+    void shouldMoveTrafficAwayFromInstanceFailingHealthChecksTest() {
+        ActiveHealthChecker checker = new ActiveHealthChecker(loadBalancer,
+                new LoadBalancerProperties.HealthCheck(), WebClient.create());
+        secondHealthy.set(false);
+
+        checker.checkAll().block();
+        checker.checkAll().block();
+
+        for (int user = 0; user < 20; user++) {
+            assertThat(call(String.valueOf(user))).startsWith("first");
+        }
+
+        secondHealthy.set(true);
+        checker.checkAll().block();
+        assertThat(loadBalancer.getInstances()).allMatch(instance -> instance.isHealthy());
+    }
+
+    @Test
+    void shouldKeepRequestOutstandingUntilSlowBodyEndsTest() {
+        ResponseEntity<Flux<String>> response = webClient.get()
+                .uri("/items/slow")
+                .header(X_SHARER_USER_ID, "42")
+                .retrieve()
+                .toEntityFlux(String.class)
+                .block();
+
+        assertThat(outstanding()).isEqualTo(1);
+
+        slowTail.tryEmitValue("tail");
+        assertThat(String.join("", response.getBody().collectList().block())).isEqualTo("head tail");
+        assertThat(outstanding()).isZero();
+    }
+
+    private int outstanding() {
+        return loadBalancer.getInstances().stream()
+                .mapToInt(instance -> instance.getOutstanding().get())
+                .sum();
+    }
+
+    private String call(String userId) {
+        return webClient.get()
+                .uri("/items/search?text=drill")
+                .header(X_SHARER_USER_ID, userId)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+    }
+
+    private static DisposableServer server(String name, AtomicBoolean healthy, Sinks.One<String> slowTail) {
+        return HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/actuator/health", (request, response) -> response.status(healthy.get() ? 200 : 503)
+                                .sendString(Mono.just("{}")))
+                        .get("/items/search", (request, response) -> response
+                                .sendString(Mono.just(name + " " + request.uri())))
+                        .get("/items/slow", (request, response) -> response
+                                .sendString(Flux.concat(Mono.just("head "), slowTail.asMono()))))
+                .bindNow();
+    }
+}
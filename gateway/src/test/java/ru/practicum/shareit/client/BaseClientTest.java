@@ -0,0 +1,185 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import ru.practicum.shareit.config.ForwardedHeadersWebFilter;
+import ru.practicum.shareit.config.UpstreamProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+class BaseClientTest {
+
+    private final Map<String, String> receivedUserIds = new ConcurrentHashMap<>();
+    private DisposableServer server;
+    private TestClient client;
+
+    @BeforeEach
+    void startServer() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/items/1", (request, response) -> {
+                            receivedUserIds.put("/items/1", request.requestHeaders().get(X_SHARER_USER_ID, ""));
+                            return response.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                    .sendString(Mono.just("{\"id\":1}"));
+                        })
+                        .get("/items/2", (request, response) -> {
+                            response.header(HttpHeaders.ETAG, "\"v1\"");
+                            if ("\"v1\"".equals(request.requestHeaders().get(HttpHeaders.IF_NONE_MATCH))) {
+                                return response.status(304).send();
+                            }
+                            return response.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                    .sendString(Mono.just("{\"id\":2}"));
+                        })
+                        .get("/items/3", (request, response) -> {
+                            if (!"gzip".equals(request.requestHeaders().get(HttpHeaders.ACCEPT_ENCODING))) {
+                                return response.status(406).send();
+                            }
+                            return response.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                                    .sendByteArray(Mono.just(gzip("{\"id\":3}")));
+                        })
+                        .get("/items/404", (request, response) -> response.status(404)
+                                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                .sendString(Mono.just("{\"error\":\"not found\"}"))))
+                .bindNow();
+        // как в WebClientConfig: без compress(true), иначе Netty сам распакует gzip до BaseClient
+        client = new TestClient(WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create()))
+                .uriBuilderFactory(new DefaultUriBuilderFactory("http://localhost:" + server.port() + "/items"))
+                .build());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.disposeNow();
+    }
+
+    @Test
+    void shouldStreamSuccessfulResponseWithUserHeaderTest() {
+        ResponseEntity<Flux<DataBuffer>> response = client.get("/1", 7L).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(body(response)).isEqualTo("{\"id\":1}");
+        assertThat(receivedUserIds).containsEntry("/items/1", "7");
+    }
+
+    @Test
+    void shouldPassErrorStatusAndBodyThroughTest() {
+        ResponseEntity<Flux<DataBuffer>> response = client.get("/404", 7L).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(body(response)).isEqualTo("{\"error\":\"not found\"}");
+    }
+
+    @Test
+    void shouldForwardIfNoneMatchAndPassNotModifiedThroughTest() {
+        HttpHeaders forwarded = new HttpHeaders();
+        forwarded.setIfNoneMatch("\"v1\"");
+
+        ResponseEntity<Flux<DataBuffer>> response = client.get("/2", 7L)
+                .contextWrite(context -> context.put(ForwardedHeadersWebFilter.CONTEXT_KEY, forwarded))
+                .block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(response.getHeaders().getContentType()).isNull();
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void shouldReturnETagWithFullBodyWhenValidatorDoesNotMatchTest() {
+        ResponseEntity<Flux<DataBuffer>> response = client.get("/2", 7L).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(body(response)).isEqualTo("{\"id\":2}");
+    }
+
+    @Test
+    void shouldPassGzipBodyThroughWhenClientAcceptsGzipTest() throws IOException {
+        ResponseEntity<Flux<DataBuffer>> response = client.get("/3", 7L)
+                .contextWrite(context -> context.put(ForwardedHeadersWebFilter.ACCEPTS_GZIP_KEY, true))
+                .block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+        byte[] compressed = DataBufferUtils.join(response.getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .block();
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":3}");
+        }
+    }
+
+    @Test
+    void shouldDecompressGzipBodyWhenClientDoesNotAcceptGzipTest() {
+        ResponseEntity<Flux<DataBuffer>> response = client.get("/3", 7L).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(-1);
+        assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(body(response)).isEqualTo("{\"id\":3}");
+    }
+
+    private static byte[] gzip(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(bytes)) {
+            output.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String body(ResponseEntity<Flux<DataBuffer>> response) {
+        return DataBufferUtils.join(response.getBody())
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .block();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(WebClient rest) {
+            super(rest, new UpstreamPolicies(new UpstreamProperties(), new SimpleMeterRegistry()).forClient("items"));
+        }
+    }
+}
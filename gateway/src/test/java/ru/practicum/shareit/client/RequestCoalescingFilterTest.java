@@ -0,0 +1,102 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import ru.practicum.shareit.config.CoalescingProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+class RequestCoalescingFilterTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DisposableServer server;
+    private RequestCoalescingFilter filter;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/items/{id}", (request, response) -> {
+                    upstreamCalls.incrementAndGet();
+                    return response.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                            .sendString(Mono.delay(Duration.ofMillis(200)).thenReturn("{\"id\":1}"));
+                }))
+                .bindNow();
+
+        CoalescingProperties.Route search = new CoalescingProperties.Route();
+        search.setPath("/items/search");
+        search.setUserScoped(false);
+        CoalescingProperties.Route item = new CoalescingProperties.Route();
+        item.setPath("/items/{itemId}");
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setRoutes(List.of(search, item));
+
+        filter = new RequestCoalescingFilter(properties, meterRegistry);
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + server.port())
+                .filter(filter)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void shouldShareOneUpstreamCallForConcurrentIdenticalGetsTest() {
+        List<String> bodies = Flux.range(0, 20)
+                .flatMap(i -> get("/items/1", "5"))
+                .collectList()
+                .block();
+
+        assertThat(bodies).hasSize(20).containsOnly("{\"id\":1}");
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(filter.inFlightCount()).isZero();
+        assertThat(meterRegistry.get("gateway.coalescing.dedup.ratio").gauge().value()).isEqualTo(19 / 20.0);
+    }
+
+    @Test
+    void shouldNotShareUserScopedRouteBetweenUsersTest() {
+        Flux.merge(get("/items/1", "5"), get("/items/1", "6")).blockLast();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldShareSearchBetweenUsersTest() {
+        Flux.merge(get("/items/search?text=drill", "5"), get("/items/search?text=drill", "6")).blockLast();
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void shouldCallUpstreamAgainAfterCompletionTest() {
+        get("/items/1", "5").block();
+        get("/items/1", "5").block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    private Mono<String> get(String uri, String userId) {
+        return webClient.get().uri(uri)
+                .header(X_SHARER_USER_ID, userId)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+}
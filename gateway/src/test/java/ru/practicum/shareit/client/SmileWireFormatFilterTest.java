@@ -0,0 +1,141 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmileWireFormatFilterTest {
+    private static final Map<String, Object> ITEM = Map.of("id", 1, "name", "Дрель",
+            "comments", List.of(Map.of("text", "ок", "authorName", "Букер")));
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private final Sinks.One<byte[]> smileTail = Sinks.one();
+    private byte[] smileItems;
+    private DisposableServer server;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smileItems = smileMapper.writeValueAsBytes(List.of(ITEM, ITEM));
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/items/1", (request, response) -> {
+                            String accept = request.requestHeaders().get(HttpHeaders.ACCEPT, "");
+                            if (!accept.startsWith(SmileWireFormatFilter.APPLICATION_SMILE.toString())) {
+                                return response.status(406).send();
+                            }
+                            return response.header(HttpHeaders.CONTENT_TYPE, SmileWireFormatFilter.APPLICATION_SMILE.toString())
+                                    .sendByteArray(Mono.fromCallable(() -> smileMapper.writeValueAsBytes(ITEM)));
+                        })
+                        .get("/items", (request, response) -> response
+                                .header(HttpHeaders.CONTENT_TYPE, SmileWireFormatFilter.APPLICATION_SMILE.toString())
+                                .sendByteArray(Flux.concat(
+                                        Mono.just(Arrays.copyOf(smileItems, smileItems.length / 2)),
+                                        smileTail.asMono())))
+                        .post("/items", (request, response) -> response
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .sendString(request.receive().aggregate().asByteArray()
+                                        .map(bytes -> request.requestHeaders().get(HttpHeaders.CONTENT_TYPE) + " "
+                                                + readSmile(bytes)))))
+                .bindNow();
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + server.port())
+                .filter(new SmileWireFormatFilter())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void shouldPreferSmileUpstreamAndReturnEquivalentJsonTest() throws Exception {
+        ResponseEntity<String> response = webClient.get()
+                .uri("/items/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .toEntity(String.class)
+                .block();
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(-1);
+        assertThat(jsonMapper.readTree(response.getBody())).isEqualTo(jsonMapper.valueToTree(ITEM));
+    }
+
+    @Test
+    void shouldTranscodeSmileBeforeWholeBodyArrivesTest() throws Exception {
+        List<String> chunks = new CopyOnWriteArrayList<>();
+        CountDownLatch firstChunk = new CountDownLatch(1);
+
+        CompletableFuture<Void> done = webClient.get()
+                .uri("/items")
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .doOnNext(chunk -> {
+                    chunks.add(chunk);
+                    firstChunk.countDown();
+                })
+                .then()
+                .toFuture();
+
+        assertThat(firstChunk.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(done).isNotDone();
+
+        smileTail.tryEmitValue(Arrays.copyOfRange(smileItems, smileItems.length / 2, smileItems.length));
+        done.get(5, TimeUnit.SECONDS);
+        assertThat(jsonMapper.readTree(String.join("", chunks))).isEqualTo(jsonMapper.valueToTree(List.of(ITEM, ITEM)));
+    }
+
+    @Test
+    void shouldSendJsonBodiesAsSmileTest() {
+        String echoed = webClient.post()
+                .uri("/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("name", "Дрель"))
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+
+        assertThat(echoed).isEqualTo("application/x-jackson-smile {name=Дрель}");
+    }
+
+    private String readSmile(byte[] bytes) {
+        try {
+            return smileMapper.readValue(bytes, Map.class).toString();
+        } catch (Exception e) {
+            return "not smile";
+        }
+    }
+}
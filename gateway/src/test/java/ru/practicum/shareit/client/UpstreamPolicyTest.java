@@ -0,0 +1,157 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.practicum.shareit.config.UpstreamProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamPolicyTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UpstreamPolicies policies;
+
+    @BeforeEach
+    void setUp() {
+        UpstreamProperties.Route owner = new UpstreamProperties.Route();
+        owner.setPath("/owner");
+        owner.setTimeout(Duration.ofMillis(500));
+        UpstreamProperties.Route list = new UpstreamProperties.Route();
+        list.setPath("");
+        list.setTimeout(Duration.ofMillis(700));
+        UpstreamProperties.Policy bookings = new UpstreamProperties.Policy();
+        bookings.setMaxConcurrentCalls(1);
+        bookings.setTimeout(Duration.ofMillis(100));
+        bookings.setSlidingWindowSize(4);
+        bookings.setMinimumNumberOfCalls(4);
+        bookings.setRoutes(List.of(owner, list));
+        UpstreamProperties properties = new UpstreamProperties();
+        properties.setClients(Map.of("bookings", bookings));
+
+        policies = new UpstreamPolicies(properties, meterRegistry);
+    }
+
+    @Test
+    void shouldResolveTimeoutByRouteIgnoringQueryTest() {
+        UpstreamPolicy policy = policies.forClient("bookings");
+
+        assertThat(policy.timeoutFor("/owner?state={state}")).isEqualTo(Duration.ofMillis(500));
+        assertThat(policy.timeoutFor("?state={state}")).isEqualTo(Duration.ofMillis(700));
+        assertThat(policy.timeoutFor("/5")).isEqualTo(Duration.ofMillis(100));
+        assertThat(policies.forClient("users").timeoutFor("/1")).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldFailWithGatewayTimeoutWhenRouteTimeoutExceededTest() {
+        UpstreamPolicy policy = policies.forClient("bookings");
+
+        assertThatThrownBy(() -> policy.apply(Mono.never(), "/5").block())
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+    }
+
+    @Test
+    void shouldRejectImmediatelyWhenBulkheadIsFullTest() {
+        UpstreamPolicy policy = policies.forClient("bookings");
+        Sinks.One<ResponseEntity<Flux<DataBuffer>>> slow = Sinks.one();
+        read(policy.apply(slow.asMono(), "/owner")).subscribe();
+
+        assertThatThrownBy(() -> read(policy.apply(call(HttpStatus.OK), "/5")).block())
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(upstreamCalls).hasValue(0);
+
+        slow.tryEmitValue(ResponseEntity.ok(Flux.empty()));
+        assertThat(read(policy.apply(call(HttpStatus.OK), "/5")).block().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void shouldOpenCircuitOnServerErrorsAndFailFastTest() {
+        UpstreamPolicy policy = policies.forClient("bookings");
+        for (int i = 0; i < 4; i++) {
+            read(policy.apply(call(HttpStatus.INTERNAL_SERVER_ERROR), "/5")).block();
+        }
+
+        assertThatThrownBy(() -> read(policy.apply(call(HttpStatus.OK), "/5")).block())
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(upstreamCalls).hasValue(4);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tags("name", "bookings", "state", "open").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldIsolateClientsFromEachOtherTest() {
+        UpstreamPolicy bookings = policies.forClient("bookings");
+        for (int i = 0; i < 4; i++) {
+            read(bookings.apply(call(HttpStatus.INTERNAL_SERVER_ERROR), "/5")).block();
+        }
+
+        ResponseEntity<Flux<DataBuffer>> response = read(policies.forClient("items").apply(call(HttpStatus.OK), "/1")).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void shouldHoldPermitUntilBodyCompletesTest() {
+        UpstreamPolicy policy = policies.forClient("bookings");
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        ResponseEntity<Flux<DataBuffer>> streaming = policy.apply(Mono.just(ResponseEntity.ok(body.asFlux())), "/owner")
+                .block();
+        streaming.getBody().subscribe();
+
+        // Заголовки уже пришли, но тело ещё читается — разрешение занято
+        assertThatThrownBy(() -> read(policy.apply(call(HttpStatus.OK), "/owner")).block())
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        body.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1}));
+        body.tryEmitComplete();
+        assertThat(read(policy.apply(call(HttpStatus.OK), "/owner")).block().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void shouldTimeOutSlowBodyAndReleasePermitTest() {
+        UpstreamPolicy policy = policies.forClient("bookings");
+        ResponseEntity<Flux<DataBuffer>> streaming = policy.apply(Mono.just(ResponseEntity.ok(Flux.never())), "/5")
+                .block();
+
+        assertThatThrownBy(() -> streaming.getBody().blockLast())
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+        assertThat(read(policy.apply(call(HttpStatus.OK), "/5")).block().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    // Как WebFlux: тело ответа дочитывается, и только тогда разрешение возвращается
+    private static Mono<ResponseEntity<Flux<DataBuffer>>> read(Mono<ResponseEntity<Flux<DataBuffer>>> response) {
+        return response.flatMap(entity -> entity.getBody().then(Mono.just(entity)));
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> call(HttpStatus status) {
+        return Mono.fromSupplier(() -> {
+            upstreamCalls.incrementAndGet();
+            return ResponseEntity.status(status).body(Flux.empty());
+        });
+    }
+}
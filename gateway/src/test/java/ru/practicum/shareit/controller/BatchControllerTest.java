@@ -0,0 +1,184 @@
+package ru.practicum.shareit.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.batch.BatchDispatcher;
+import ru.practicum.shareit.client.BookingClient;
+import ru.practicum.shareit.client.ItemClient;
+import ru.practicum.shareit.client.UserClient;
+import ru.practicum.shareit.config.ForwardedHeadersWebFilter;
+import ru.practicum.shareit.dto.UserDto;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+import static ru.practicum.shareit.controller.GatewayResponses.gzipped;
+import static ru.practicum.shareit.controller.GatewayResponses.ok;
+
+@WebFluxTest({BatchController.class, UserController.class, ItemController.class, BookingController.class})
+@Import({BatchDispatcher.class, ForwardedHeadersWebFilter.class})
+class BatchControllerTest {
+
+    @Autowired
+    private WebTestClient webClient;
+
+    @MockBean
+    private UserClient userClient;
+
+    @MockBean
+    private ItemClient itemClient;
+
+    @MockBean
+    private BookingClient bookingClient;
+
+    @Test
+    void shouldRunSubRequestsInParallelAndKeepOrderTest() {
+        UserDto user = new UserDto();
+        user.setId(1L);
+        user.setName("John");
+        when(userClient.getById(1L)).thenReturn(ok(user).delayElement(Duration.ofMillis(300)));
+        when(itemClient.getAllByOwner(1L)).thenReturn(ok(List.of(Map.of("id", 5))).delayElement(Duration.ofMillis(300)));
+        when(bookingClient.getAllByBooker(1L, "CURRENT")).thenReturn(ok(List.of()).delayElement(Duration.ofMillis(300)));
+
+        long start = System.nanoTime();
+        webClient.post().uri("/batch")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("requests", List.of(
+                        Map.of("id", "user", "method", "GET", "path", "/users/1"),
+                        Map.of("id", "items", "method", "GET", "path", "/items"),
+                        Map.of("id", "bookings", "method", "GET", "path", "/bookings?state=CURRENT"))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.responses[0].id").isEqualTo("user")
+                .jsonPath("$.responses[0].status").isEqualTo(200)
+                .jsonPath("$.responses[0].body.name").isEqualTo("John")
+                .jsonPath("$.responses[1].body[0].id").isEqualTo(5)
+                .jsonPath("$.responses[2].id").isEqualTo("bookings")
+                .jsonPath("$.responses[2].body").isArray();
+        assertThat(Duration.ofNanos(System.nanoTime() - start))
+                .isLessThan(Duration.ofMillis(850));
+    }
+
+    @Test
+    void shouldValidateEachSubRequestWithControllerRulesTest() {
+        when(userClient.getById(1L)).thenReturn(ok(new UserDto()));
+
+        webClient.post().uri("/batch")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("requests", List.of(
+                        Map.of("method", "POST", "path", "/users", "body", Map.of("name", "John", "email", "bad")),
+                        Map.of("method", "GET", "path", "/users/1"),
+                        Map.of("method", "GET", "path", "/items/abc"),
+                        Map.of("method", "POST", "path", "/batch", "body", Map.of()))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.responses[0].id").isEqualTo("0")
+                .jsonPath("$.responses[0].status").isEqualTo(400)
+                .jsonPath("$.responses[1].status").isEqualTo(200)
+                .jsonPath("$.responses[2].status").isEqualTo(400)
+                .jsonPath("$.responses[3].status").isEqualTo(400);
+
+        verify(userClient, never()).create(any());
+    }
+
+    @Test
+    void shouldPassSubRequestHeadersAndReturnResponseHeadersTest() {
+        when(itemClient.getById(2L, 7L)).thenReturn(Mono.just(
+                ResponseEntity.status(304).eTag("\"v1\"").build()));
+
+        webClient.post().uri("/batch")
+                .header(X_SHARER_USER_ID, "2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("requests", List.of(
+                        Map.of("method", "GET", "path", "/items/7", "headers", Map.of("If-None-Match", "\"v1\"")))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.responses[0].status").isEqualTo(304)
+                .jsonPath("$.responses[0].headers.ETag").isEqualTo("\"v1\"")
+                .jsonPath("$.responses[0].body").doesNotExist();
+    }
+
+    @Test
+    void shouldRunSubRequestsAsParentUserTest() {
+        when(itemClient.getAllByOwner(1L)).thenReturn(ok(List.of(Map.of("id", 5))));
+
+        webClient.post().uri("/batch")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("requests", List.of(
+                        Map.of("method", "GET", "path", "/items", "headers", Map.of(X_SHARER_USER_ID, "2")),
+                        Map.of("method", "GET", "path", "/items",
+                                "headers", Map.of(X_SHARER_USER_ID.toLowerCase(), "2")))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.responses[0].status").isEqualTo(200)
+                .jsonPath("$.responses[0].body[0].id").isEqualTo(5)
+                .jsonPath("$.responses[1].status").isEqualTo(200);
+
+        verify(itemClient, never()).getAllByOwner(2L);
+    }
+
+    @Test
+    void shouldNotEmbedCompressedBodiesTest() {
+        // клиент получил бы gzip, только если подзапрос или внешний запрос донёс до BaseClient Accept-Encoding
+        when(itemClient.getById(2L, 7L)).thenReturn(Mono.deferContextual(context ->
+                context.getOrDefault(ForwardedHeadersWebFilter.ACCEPTS_GZIP_KEY, false)
+                        ? gzipped(Map.of("id", 7)) : ok(Map.of("id", 7))));
+        when(itemClient.getById(2L, 8L)).thenReturn(gzipped(Map.of("id", 8)));
+
+        webClient.post().uri("/batch")
+                .header(X_SHARER_USER_ID, "2")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("requests", List.of(
+                        Map.of("method", "GET", "path", "/items/7",
+                                "headers", Map.of(HttpHeaders.ACCEPT_ENCODING, "gzip", "Connection", "close")),
+                        Map.of("method", "GET", "path", "/items/8"))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.responses[0].status").isEqualTo(200)
+                .jsonPath("$.responses[0].body.id").isEqualTo(7)
+                .jsonPath("$.responses[0].headers['Content-Encoding']").doesNotExist()
+                .jsonPath("$.responses[1].status").isEqualTo(502)
+                .jsonPath("$.responses[1].body.id").doesNotExist();
+    }
+
+    @Test
+    void shouldRejectEmptyOrOversizedBatchTest() {
+        webClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("requests", List.of()))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("requests", Collections.nCopies(21,
+                        Map.of("method", "GET", "path", "/users/1"))))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -1,36 +1,34 @@
 package ru.practicum.shareit.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import ru.practicum.shareit.client.BookingClient;
+import ru.practicum.shareit.dto.BookingBulkDecisionDto;
 import ru.practicum.shareit.dto.BookingCreateDto;
 import ru.practicum.shareit.dto.BookingDto;
 import ru.practicum.shareit.model.BookingStatus;
 
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+import static ru.practicum.shareit.controller.GatewayResponses.ok;
 
-@WebMvcTest(BookingController.class)
+@WebFluxTest(BookingController.class)
 class BookingControllerTest {
 
     @Autowired
-    private MockMvc mockMvc;
-    @Autowired
-    private ObjectMapper mapper;
+    private WebTestClient webClient;
     @MockBean
     private BookingClient bookingClient;
 
@@ -38,7 +36,7 @@ class BookingControllerTest {
     private final LocalDateTime dayAfterTomorrow = LocalDateTime.now().plusDays(2);
 
     @Test
-    void shouldCreateBookingTest() throws Exception {
+    void shouldCreateBookingTest() {
         BookingCreateDto dto = new BookingCreateDto();
         dto.setItemId(1L);
         dto.setStart(tomorrow);
@@ -48,61 +46,117 @@ class BookingControllerTest {
         response.setId(1L);
         response.setStatus(BookingStatus.WAITING);
 
-        when(bookingClient.create(eq(1L), any())).thenReturn(ResponseEntity.ok(response));
+        when(bookingClient.create(eq(1L), any())).thenReturn(ok(response));
 
-        mockMvc.perform(post("/bookings")
-                        .header(X_SHARER_USER_ID, 1)
-                        .content(mapper.writeValueAsString(dto))
-                        .characterEncoding(StandardCharsets.UTF_8)
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(1L));
+        webClient.post().uri("/bookings")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
     }
 
     @Test
-    void shouldReturn400WhenStartInPastTest() throws Exception {
+    void shouldReturn400WhenStartInPastTest() {
         BookingCreateDto invalid = new BookingCreateDto();
         invalid.setItemId(1L);
         invalid.setStart(LocalDateTime.now().minusDays(1));
         invalid.setEnd(tomorrow);
 
-        mockMvc.perform(post("/bookings")
-                        .header(X_SHARER_USER_ID, 1)
-                        .content(mapper.writeValueAsString(invalid))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest());
+        webClient.post().uri("/bookings")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(invalid)
+                .exchange()
+                .expectStatus().isBadRequest();
     }
 
     @Test
-    void shouldApproveBookingTest() throws Exception {
+    void shouldApproveBookingTest() {
         BookingDto approved = new BookingDto();
         approved.setStatus(BookingStatus.APPROVED);
 
-        when(bookingClient.approve(1L, 2L, true)).thenReturn(ResponseEntity.ok(approved));
+        when(bookingClient.approve(1L, 2L, true)).thenReturn(ok(approved));
+
+        webClient.patch().uri("/bookings/2?approved=true")
+                .header(X_SHARER_USER_ID, "1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.status").isEqualTo("APPROVED");
+    }
+
+    @Test
+    void shouldPassBulkDecisionsToServerTest() {
+        BookingBulkDecisionDto dto = new BookingBulkDecisionDto(List.of(
+                new BookingBulkDecisionDto.Decision(2L, true),
+                new BookingBulkDecisionDto.Decision(3L, false)));
+
+        when(bookingClient.decideAll(1L, dto)).thenReturn(ok(Map.of("results", List.of())));
+
+        webClient.patch().uri("/bookings/bulk")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto)
+                .exchange()
+                .expectStatus().isOk();
+    }
 
-        mockMvc.perform(patch("/bookings/2")
-                        .header(X_SHARER_USER_ID, 1)
-                        .param("approved", "true"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.status").value("APPROVED"));
+    @Test
+    void shouldReturn400WhenBulkDecisionInvalidTest() {
+        webClient.patch().uri("/bookings/bulk")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BookingBulkDecisionDto(List.of()))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webClient.patch().uri("/bookings/bulk")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BookingBulkDecisionDto(List.of(new BookingBulkDecisionDto.Decision(2L, null))))
+                .exchange()
+                .expectStatus().isBadRequest();
     }
 
     @Test
-    void shouldGetAllByBookerTest() throws Exception {
-        when(bookingClient.getAllByBooker(eq(1L), anyString())).thenReturn(ResponseEntity.ok(List.of()));
+    void shouldGetAllByBookerTest() {
+        when(bookingClient.getAllByBooker(eq(1L), anyString())).thenReturn(ok(List.of()));
 
-        mockMvc.perform(get("/bookings")
-                        .header(X_SHARER_USER_ID, 1)
-                        .param("state", "WAITING"))
-                .andExpect(status().isOk());
+        webClient.get().uri("/bookings?state=WAITING")
+                .header(X_SHARER_USER_ID, "1")
+                .exchange()
+                .expectStatus().isOk();
     }
 
     @Test
-    void shouldGetAllByOwnerTest() throws Exception {
-        when(bookingClient.getAllByOwner(eq(1L), anyString())).thenReturn(ResponseEntity.ok(List.of()));
+    void shouldGetAllByOwnerTest() {
+        when(bookingClient.getAllByOwner(eq(1L), anyString())).thenReturn(ok(List.of()));
 
-        mockMvc.perform(get("/bookings/owner")
-                        .header(X_SHARER_USER_ID, 1))
-                .andExpect(status().isOk());
+        webClient.get().uri("/bookings/owner")
+                .header(X_SHARER_USER_ID, "1")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void shouldRelayBookingEventStreamTest() {
+        when(bookingClient.stream(1L)).thenReturn(Flux.just(ServerSentEvent.<String>builder()
+                .id("7")
+                .event("BOOKING_APPROVED")
+                .data("{\"id\":3,\"status\":\"APPROVED\"}")
+                .build()));
+
+        String body = webClient.get().uri("/bookings/stream")
+                .header(X_SHARER_USER_ID, "1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(body).contains("id:7", "event:BOOKING_APPROVED", "data:{\"id\":3,\"status\":\"APPROVED\"}");
     }
-}
\ No newline at end of file
+}
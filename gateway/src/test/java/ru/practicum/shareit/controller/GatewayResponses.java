@@ -0,0 +1,53 @@
+package ru.practicum.shareit.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+final class GatewayResponses {
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private GatewayResponses() {
+    }
+
+    static Mono<ResponseEntity<Flux<DataBuffer>>> ok(Object body) {
+        try {
+            DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(MAPPER.writeValueAsBytes(body));
+            return Mono.just(ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Flux.just(buffer)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Как ответ сервера, который BaseClient пропускает сжатым, если клиент принимает gzip
+    static Mono<ResponseEntity<Flux<DataBuffer>>> gzipped(Object body) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                gzip.write(MAPPER.writeValueAsBytes(body));
+            }
+            return Mono.just(ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes.toByteArray()))));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Mono<ResponseEntity<Flux<DataBuffer>>> ok() {
+        return Mono.just(ResponseEntity.ok().body(Flux.empty()));
+    }
+}
@@ -1,42 +1,35 @@
 package ru.practicum.shareit.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import ru.practicum.shareit.client.ItemClient;
 import ru.practicum.shareit.dto.CommentCreateDto;
 import ru.practicum.shareit.dto.CommentDto;
 import ru.practicum.shareit.dto.ItemDto;
 
-import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+import static ru.practicum.shareit.controller.GatewayResponses.ok;
 
-@WebMvcTest(ItemController.class)
+@WebFluxTest(ItemController.class)
 class ItemControllerTest {
 
     @Autowired
-    private MockMvc mockMvc;
-    @Autowired
-    private ObjectMapper mapper;
+    private WebTestClient webClient;
     @MockBean
     private ItemClient itemClient;
 
     @Test
-    void shouldCreateItemTest() throws Exception {
+    void shouldCreateItemTest() {
         ItemDto dto = new ItemDto();
         dto.setName("Дрель");
         dto.setDescription("Аккумуляторная");
@@ -48,33 +41,34 @@ class ItemControllerTest {
         created.setDescription("Аккумуляторная");
         created.setAvailable(true);
 
-        when(itemClient.create(eq(1L), any())).thenReturn(ResponseEntity.ok(created));
+        when(itemClient.create(eq(1L), any())).thenReturn(ok(created));
 
-        mockMvc.perform(post("/items")
-                        .header(X_SHARER_USER_ID, 1)
-                        .content(mapper.writeValueAsString(dto))
-                        .characterEncoding(StandardCharsets.UTF_8)
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(1L));
+        webClient.post().uri("/items")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
     }
 
     @Test
-    void shouldReturn400WhenNameBlankTest() throws Exception {
+    void shouldReturn400WhenNameBlankTest() {
         ItemDto invalid = new ItemDto();
         invalid.setName("   ");
         invalid.setDescription("desc");
         invalid.setAvailable(true);
 
-        mockMvc.perform(post("/items")
-                        .header(X_SHARER_USER_ID, 1)
-                        .content(mapper.writeValueAsString(invalid))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest());
+        webClient.post().uri("/items")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(invalid)
+                .exchange()
+                .expectStatus().isBadRequest();
     }
 
     @Test
-    void shouldAddCommentTest() throws Exception {
+    void shouldAddCommentTest() {
         CommentCreateDto dto = new CommentCreateDto();
         dto.setText("Отличная вещь!");
 
@@ -83,22 +77,83 @@ class ItemControllerTest {
         response.setText("Отличная вещь!");
         response.setAuthorName("John");
 
-        when(itemClient.addComment(eq(1L), eq(2L), any())).thenReturn(ResponseEntity.ok(response));
+        when(itemClient.addComment(eq(1L), eq(2L), any())).thenReturn(ok(response));
 
-        mockMvc.perform(post("/items/2/comment")
-                        .header(X_SHARER_USER_ID, 1)
-                        .content(mapper.writeValueAsString(dto))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.text").value("Отличная вещь!"));
+        webClient.post().uri("/items/2/comment")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.text").isEqualTo("Отличная вещь!");
     }
 
     @Test
-    void shouldSearchItemsTest() throws Exception {
-        when(itemClient.search("дрель")).thenReturn(ResponseEntity.ok(List.of()));
+    void shouldSearchItemsTest() {
+        when(itemClient.search("дрель")).thenReturn(ok(List.of()));
+
+        webClient.get().uri(uriBuilder -> uriBuilder.path("/items/search").queryParam("text", "дрель").build())
+                .exchange()
+                .expectStatus().isOk();
+    }
 
-        mockMvc.perform(get("/items/search")
-                        .param("text", "дрель"))
-                .andExpect(status().isOk());
+    @Test
+    void shouldSearchAvailableItemsTest() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(2);
+        when(itemClient.searchAvailable("дрель", from, to)).thenReturn(ok(List.of()));
+
+        webClient.get().uri(uriBuilder -> uriBuilder.path("/items/search")
+                        .queryParam("text", "дрель")
+                        .queryParam("from", from.toString())
+                        .queryParam("to", to.toString())
+                        .build())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void shouldReturn400WhenSearchWindowInvalidTest() {
+        webClient.get().uri(uriBuilder -> uriBuilder.path("/items/search")
+                        .queryParam("text", "дрель")
+                        .queryParam("from", "2030-01-03T10:00:00")
+                        .queryParam("to", "2030-01-01T10:00:00")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webClient.get().uri(uriBuilder -> uriBuilder.path("/items/search")
+                        .queryParam("text", "дрель")
+                        .queryParam("from", "2030-01-01T10:00:00")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldGetCalendarTest() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusMonths(1);
+        when(itemClient.getCalendar(1L, 5L, from, to, true)).thenReturn(ok(List.of()));
+
+        webClient.get().uri(uriBuilder -> uriBuilder.path("/items/5/calendar")
+                        .queryParam("from", from.toString())
+                        .queryParam("to", to.toString())
+                        .queryParam("includeWaiting", true)
+                        .build())
+                .header(X_SHARER_USER_ID, "1")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void shouldReturn400WhenCalendarWindowInvalidTest() {
+        webClient.get().uri(uriBuilder -> uriBuilder.path("/items/5/calendar")
+                        .queryParam("from", "2030-02-01T00:00:00")
+                        .queryParam("to", "2030-01-01T00:00:00")
+                        .build())
+                .header(X_SHARER_USER_ID, "1")
+                .exchange()
+                .expectStatus().isBadRequest();
     }
-}
\ No newline at end of file
+}
@@ -2,72 +2,67 @@ package ru.practicum.shareit.controller;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import ru.practicum.shareit.client.ItemRequestClient;
-import ru.practicum.shareit.dto.ItemRequestCreateDto;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+import static ru.practicum.shareit.controller.GatewayResponses.ok;
 
-@WebMvcTest(ItemRequestController.class)
+@WebFluxTest(ItemRequestController.class)
 class ItemRequestControllerTest {
 
     @Autowired
-    private MockMvc mockMvc;
+    private WebTestClient webClient;
     @MockBean
     private ItemRequestClient requestClient;
 
     @Test
-    void shouldCreateRequestTest() throws Exception {
-        ItemRequestCreateDto dto = new ItemRequestCreateDto();
-        dto.setDescription("Нужна дрель");
+    void shouldCreateRequestTest() {
+        when(requestClient.create(eq(1L), any())).thenReturn(ok(Map.of("id", 1)));
 
-        when(requestClient.create(eq(1L), any())).thenReturn(ResponseEntity.ok().body("{\"id\": 1}"));
-
-        mockMvc.perform(post("/requests")
-                        .header(X_SHARER_USER_ID, 1)
-                        .content("{\"description\": \"Нужна дрель\"}")
-                        .contentType("application/json"))
-                .andExpect(status().isOk());
+        webClient.post().uri("/requests")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"description\": \"Нужна дрель\"}")
+                .exchange()
+                .expectStatus().isOk();
     }
 
     @Test
-    void shouldReturn400WhenDescriptionBlankTest() throws Exception {
-        mockMvc.perform(post("/requests")
-                        .header(X_SHARER_USER_ID, 1)
-                        .content("{\"description\": \" \"}")
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest());
+    void shouldReturn400WhenDescriptionBlankTest() {
+        webClient.post().uri("/requests")
+                .header(X_SHARER_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"description\": \" \"}")
+                .exchange()
+                .expectStatus().isBadRequest();
     }
 
     @Test
-    void shouldGetOwnRequestsTest() throws Exception {
-        when(requestClient.getOwnRequests(1L)).thenReturn(ResponseEntity.ok(List.of()));
+    void shouldGetOwnRequestsTest() {
+        when(requestClient.getOwnRequests(1L)).thenReturn(ok(List.of()));
 
-        mockMvc.perform(get("/requests")
-                        .header(X_SHARER_USER_ID, 1))
-                .andExpect(status().isOk());
+        webClient.get().uri("/requests")
+                .header(X_SHARER_USER_ID, "1")
+                .exchange()
+                .expectStatus().isOk();
     }
 
     @Test
-    void shouldGetAllRequestsTest() throws Exception {
-        when(requestClient.getAllRequests(eq(1L), anyInt(), anyInt()))
-                .thenReturn(ResponseEntity.ok(List.of()));
+    void shouldGetAllRequestsTest() {
+        when(requestClient.getAllRequests(eq(1L), anyInt(), anyInt())).thenReturn(ok(List.of()));
 
-        mockMvc.perform(get("/requests/all")
-                        .header(X_SHARER_USER_ID, 1)
-                        .param("from", "0")
-                        .param("size", "10"))
-                .andExpect(status().isOk());
+        webClient.get().uri("/requests/all?from=0&size=10")
+                .header(X_SHARER_USER_ID, "1")
+                .exchange()
+                .expectStatus().isOk();
     }
-}
\ No newline at end of file
+}
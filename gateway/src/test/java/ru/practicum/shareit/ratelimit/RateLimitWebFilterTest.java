@@ -0,0 +1,159 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.config.RateLimitProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+class RateLimitWebFilterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger passed = new AtomicInteger();
+    private final WebFilterChain chain = exchange -> {
+        passed.incrementAndGet();
+        return Mono.empty();
+    };
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitWebFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Route owner = new RateLimitProperties.Route();
+        owner.setPath("/bookings/owner");
+        owner.setMethod("GET");
+        owner.setCapacity(2);
+        owner.setRefillPerSecond(1);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setCapacity(5);
+        properties.setRefillPerSecond(5);
+        properties.setIdleTimeout(Duration.ofMinutes(1));
+        properties.setRoutes(List.of(owner));
+
+        filter = new RateLimitWebFilter(properties, meterRegistry, now::get);
+    }
+
+    @Test
+    void shouldRejectWithRetryAfterWhenRouteQuotaExhaustedTest() {
+        assertThat(send("/bookings/owner", "1")).isNull();
+        assertThat(send("/bookings/owner", "1")).isNull();
+
+        MockServerWebExchange exchange = exchange("/bookings/owner", "1");
+        Throwable error = run(exchange);
+
+        assertThat(error).isInstanceOf(ResponseStatusException.class);
+        assertThat(((ResponseStatusException) error).getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(passed).hasValue(2);
+        assertThat(meterRegistry.get("gateway.ratelimit.requests")
+                .tags("route", "GET /bookings/owner", "outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepSeparateBucketsPerUserAndRouteTest() {
+        send("/bookings/owner", "1");
+        send("/bookings/owner", "1");
+
+        assertThat(send("/bookings/owner", "1")).isNotNull();
+        assertThat(send("/bookings/owner", "2")).isNull();
+        assertThat(send("/items", "1")).isNull();
+    }
+
+    @Test
+    void shouldRefillTokensOverTimeTest() {
+        send("/bookings/owner", "1");
+        send("/bookings/owner", "1");
+        assertThat(send("/bookings/owner", "1")).isNotNull();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(send("/bookings/owner", "1")).isNull();
+        assertThat(send("/bookings/owner", "1")).isNotNull();
+    }
+
+    @Test
+    void shouldEvictIdleBucketsTest() {
+        send("/items", "1");
+        send("/items", "2");
+        assertThat(filter.bucketCount()).isEqualTo(2);
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        send("/items", "3");
+
+        assertThat(filter.bucketCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotLimitExcludedPathsTest() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(send("/actuator/prometheus", null)).isNull();
+        }
+        assertThat(filter.bucketCount()).isZero();
+    }
+
+    @Test
+    void shouldAdmitExactlyCapacityUnderContentionTest() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < 64; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    Throwable error = send("/items", "1");
+                    if (error != null) {
+                        errors.add(error);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(passed).hasValue(5);
+        assertThat(errors).hasSize(59);
+    }
+
+    private Throwable send(String path, String userId) {
+        return run(exchange(path, userId));
+    }
+
+    private Throwable run(MockServerWebExchange exchange) {
+        try {
+            filter.filter(exchange, chain).block();
+            return null;
+        } catch (ResponseStatusException e) {
+            return e;
+        }
+    }
+
+    private static MockServerWebExchange exchange(String path, String userId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (userId != null) {
+            request.header(X_SHARER_USER_ID, userId);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
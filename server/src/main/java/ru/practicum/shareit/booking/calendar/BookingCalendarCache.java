@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking.calendar;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Слитые интервалы занятости вещи по её APPROVED и WAITING бронированиям в горизонте вокруг текущего момента:
+// размер записи не растёт с историей вещи. Окна за горизонтом читаются из базы напрямую и не кэшируются.
+// Любая запись, меняющая период или статус бронирования, должна вызвать evict
+@Component
+public class BookingCalendarCache {
+    private static final List<BookingStatus> BUSY = List.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+    private static final int STRIPES = 1024;
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final Duration horizonBack;
+    private final Duration horizonAhead;
+    private final Cache<Long, ItemCalendar> calendars;
+    // Счётчики сбросов по полосам id: календарь, прочитанный до сброса, в кэш не попадёт
+    private final AtomicLongArray evictions = new AtomicLongArray(STRIPES);
+
+    public BookingCalendarCache(BookingRepository bookingRepository,
+                                @Value("${shareit.booking-calendar.enabled:true}") boolean enabled,
+                                @Value("${shareit.booking-calendar.max-items:10000}") long maxItems,
+                                @Value("${shareit.booking-calendar.ttl:PT10M}") Duration ttl,
+                                @Value("${shareit.booking-calendar.horizon-back:P30D}") Duration horizonBack,
+                                @Value("${shareit.booking-calendar.horizon-ahead:P365D}") Duration horizonAhead) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.horizonBack = horizonBack;
+        this.horizonAhead = horizonAhead;
+        this.calendars = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Загрузка идёт вне блокировок кэша; результат кладётся, только если вещь не сбрасывали за время чтения
+    public ItemCalendar get(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (enabled) {
+            ItemCalendar cached = calendars.getIfPresent(itemId);
+            if (cached != null && cached.covers(from, to)) {
+                return cached;
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizonFrom = now.minus(horizonBack);
+        LocalDateTime horizonTo = now.plus(horizonAhead);
+        if (!enabled || from.isBefore(horizonFrom) || to.isAfter(horizonTo)) {
+            return load(itemId, from, to);
+        }
+        int stripe = stripe(itemId);
+        long stamp = evictions.get(stripe);
+        ItemCalendar loaded = load(itemId, horizonFrom, horizonTo);
+        calendars.asMap().compute(itemId, (id, current) -> evictions.get(stripe) == stamp ? loaded : current);
+        return loaded;
+    }
+
+    // Сбрасываем сразу, чтобы своя транзакция видела изменение, и ещё раз после её завершения:
+    // между ними кэш мог наполниться незакоммиченным или уже устаревшим состоянием
+    public void evict(Long itemId) {
+        if (!enabled) {
+            return;
+        }
+        invalidate(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(itemId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long itemId) {
+        evictions.incrementAndGet(stripe(itemId));
+        calendars.invalidate(itemId);
+    }
+
+    private static int stripe(Long itemId) {
+        return Long.hashCode(itemId) & (STRIPES - 1);
+    }
+
+    private ItemCalendar load(Long itemId, LocalDateTime from, LocalDateTime to) {
+        List<Object[]> periods = bookingRepository.findPeriodsByItemId(itemId, BUSY, from, to);
+        int size = periods.size();
+        long[] approvedStarts = new long[size];
+        long[] approvedEnds = new long[size];
+        long[] allStarts = new long[size];
+        long[] allEnds = new long[size];
+        int approved = 0;
+        for (int i = 0; i < size; i++) {
+            Object[] period = periods.get(i);
+            long start = BusyIntervals.toMicros((LocalDateTime) period[0]);
+            long end = BusyIntervals.toMicros((LocalDateTime) period[1]);
+            allStarts[i] = start;
+            allEnds[i] = end;
+            if (period[2] == BookingStatus.APPROVED) {
+                approvedStarts[approved] = start;
+                approvedEnds[approved] = end;
+                approved++;
+            }
+        }
+        return new ItemCalendar(from, to, BusyIntervals.mergeSorted(approvedStarts, approvedEnds, approved),
+                BusyIntervals.mergeSorted(allStarts, allEnds, size));
+    }
+
+    // Интервалы, пересекающие [from, to); за пределами этого окна календарь ничего не знает
+    public record ItemCalendar(LocalDateTime from, LocalDateTime to, BusyIntervals approved,
+                               BusyIntervals withWaiting) {
+        boolean covers(LocalDateTime windowFrom, LocalDateTime windowTo) {
+            return !windowFrom.isBefore(from) && !windowTo.isAfter(to);
+        }
+    }
+}
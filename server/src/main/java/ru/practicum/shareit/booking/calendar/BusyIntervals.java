@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking.calendar;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Непересекающиеся интервалы занятости одной вещи по возрастанию начала, в двух параллельных массивах
+// микросекунд эпохи. Пересекающиеся и смежные бронирования сливаются при создании; запрос окна — бинарный
+// поиск и проход только по задетым интервалам
+public final class BusyIntervals {
+    public static final BusyIntervals EMPTY = new BusyIntervals(new long[0], new long[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+
+    private BusyIntervals(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    // Сливает интервалы, упорядоченные по началу. Массивы переиспользуются как рабочие
+    public static BusyIntervals mergeSorted(long[] starts, long[] ends, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        int merged = 0;
+        for (int i = 1; i < size; i++) {
+            if (starts[i] < starts[merged]) {
+                throw new IllegalArgumentException("Интервалы должны быть отсортированы по началу");
+            }
+            if (starts[i] <= ends[merged]) {
+                ends[merged] = Math.max(ends[merged], ends[i]);
+            } else {
+                merged++;
+                starts[merged] = starts[i];
+                ends[merged] = ends[i];
+            }
+        }
+        return new BusyIntervals(Arrays.copyOf(starts, merged + 1), Arrays.copyOf(ends, merged + 1));
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    // Интервалы занятости, пересекающие [from, to), обрезанные по окну
+    public List<Interval> within(LocalDateTime from, LocalDateTime to) {
+        long windowStart = toMicros(from);
+        long windowEnd = toMicros(to);
+        List<Interval> result = new ArrayList<>();
+        for (int i = firstEndingAfter(windowStart); i < starts.length && starts[i] < windowEnd; i++) {
+            result.add(new Interval(toDateTime(Math.max(starts[i], windowStart)),
+                    toDateTime(Math.min(ends[i], windowEnd))));
+        }
+        return result;
+    }
+
+    // ends растут вместе со starts, потому что интервалы не пересекаются
+    private int firstEndingAfter(long instant) {
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle] <= instant) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    static LocalDateTime toDateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    public record Interval(LocalDateTime start, LocalDateTime end) {
+    }
+}
@@ -1,12 +1,21 @@
 package ru.practicum.shareit.booking.confroller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingBulkResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.BookingEventStream;
+import ru.practicum.shareit.user.service.UserService;
 
+import java.io.IOException;
 import java.util.List;
 
 import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
@@ -17,6 +26,8 @@ import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingEventStream bookingEventStream;
+    private final UserService userService;
 
     @PostMapping
     public BookingDto create(
@@ -33,10 +44,27 @@ public class BookingController {
         return bookingService.approve(userId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public BookingBulkResultDto decideAll(
+            @RequestHeader(X_SHARER_USER_ID) Long userId,
+            @RequestBody BookingBulkDecisionDto dto) {
+        return bookingService.decideAll(userId, dto);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(X_SHARER_USER_ID) Long userId) {
+        userService.getById(userId);
+        return bookingEventStream.subscribe(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getById(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
-            @PathVariable Long bookingId) {
+            @PathVariable Long bookingId,
+            WebRequest request) {
+        if (request.checkNotModified(bookingService.getETag(userId, bookingId))) {
+            return null;
+        }
         return bookingService.getById(userId, bookingId);
     }
 
@@ -53,4 +81,10 @@ public class BookingController {
             @RequestParam(defaultValue = "ALL") String state) {
         return bookingService.getAllByOwner(userId, BookingState.fromString(state));
     }
+
+    // Клиент закрыл поток событий, отвечать уже некому
+    @ExceptionHandler(IOException.class)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void onClientGone() {
+    }
 }
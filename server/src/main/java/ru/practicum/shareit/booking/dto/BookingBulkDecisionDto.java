@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBulkDecisionDto {
+    private List<Decision> decisions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Decision {
+        private Long bookingId;
+        private Boolean approved;
+    }
+}
@@ -8,7 +8,8 @@ public enum BookingState {
     PAST,
     FUTURE,
     WAITING,
-    REJECTED;
+    REJECTED,
+    EXPIRED;
 
     public static BookingState fromString(String state) {
         if (state == null) return ALL;
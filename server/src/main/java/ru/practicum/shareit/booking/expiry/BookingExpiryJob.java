@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.calendar.BookingCalendarCache;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.config.BookingExpiryProperties;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Переводит WAITING-бронирования с наступившим началом в EXPIRED ограниченными пачками. Каждая пачка — своя
+// транзакция с FOR UPDATE SKIP LOCKED, поэтому несколько инстансов делят очередь, а не ждут друг друга
+@Slf4j
+public class BookingExpiryJob {
+    private final BookingRepository bookingRepository;
+    private final BookingCalendarCache calendarCache;
+    private final BookingExpiryProperties properties;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter expired;
+    private final Timer batches;
+
+    public BookingExpiryJob(BookingRepository bookingRepository, BookingCalendarCache calendarCache,
+                            BookingExpiryProperties properties, OutboxPublisher outboxPublisher,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.calendarCache = calendarCache;
+        this.properties = properties;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expired = Counter.builder("shareit.booking.expiry.expired")
+                .description("WAITING-бронирования, переведённые в EXPIRED")
+                .register(meterRegistry);
+        this.batches = Timer.builder("shareit.booking.expiry.batch")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking-expiry.interval:PT1M}",
+            fixedDelayString = "${shareit.booking-expiry.interval:PT1M}")
+    public void expireStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getGrace());
+        int total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int count = expireBatch(cutoff);
+            total += count;
+            if (count < properties.getBatchSize()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Истекло {} неподтверждённых бронирований с началом до {}", total, cutoff);
+        }
+    }
+
+    public int expireBatch(LocalDateTime cutoff) {
+        Integer count = batches.record(() -> transactionTemplate.execute(status -> {
+            List<Booking> stale = bookingRepository.findByStatusAndStartBeforeOrderByStart(
+                    BookingStatus.WAITING, cutoff, Limit.of(properties.getBatchSize()));
+            if (stale.isEmpty()) {
+                return 0;
+            }
+            int updated = bookingRepository.expireWaiting(stale.stream().map(Booking::getId).toList());
+            stale.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .distinct()
+                    .forEach(calendarCache::evict);
+            // строки заблокированы выборкой, поэтому UPDATE перевёл их все
+            for (Booking booking : stale) {
+                booking.setStatus(BookingStatus.EXPIRED);
+                outboxPublisher.publish(OutboxEventType.BOOKING_EXPIRED, booking.getId(),
+                        BookingMapper.toBookingEventDto(booking));
+            }
+            return updated;
+        }));
+        expired.increment(count);
+        return count;
+    }
+}
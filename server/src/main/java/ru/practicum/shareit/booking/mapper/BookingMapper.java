@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.mapper;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
 import ru.practicum.shareit.booking.model.Booking;
 
 public final class BookingMapper {
@@ -28,4 +29,16 @@ public final class BookingMapper {
                 .status(booking.getStatus())
                 .build();
     }
+
+    // getId() у ленивых прокси вещи и букера не инициализирует их
+    public static BookingEventDto toBookingEventDto(Booking booking) {
+        return BookingEventDto.builder()
+                .id(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .build();
+    }
 }
@@ -23,6 +23,9 @@ public class Booking {
     @ToString.Include
     private Long id;
 
+    @Version
+    private Long version;
+
     @Column(name = "start_date", nullable = false)
     @ToString.Include
     private LocalDateTime start;
@@ -0,0 +1,218 @@
+package ru.practicum.shareit.booking.partition;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.BookingPartitionProperties;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ru.practicum.shareit.booking.partition.BookingPartitions.ARCHIVE;
+import static ru.practicum.shareit.booking.partition.BookingPartitions.ARCHIVE_DEFAULT_PARTITION;
+import static ru.practicum.shareit.booking.partition.BookingPartitions.DEFAULT_PARTITION;
+import static ru.practicum.shareit.booking.partition.BookingPartitions.TABLE;
+
+// Держит bookings в PostgreSQL разбитой на партиции по месяцу start_date. Первый прогон переделывает обычную
+// таблицу на месте; дальше каждый прогон создаёт партиции горячего окна (от retention месяцев назад до месяцев
+// вперёд), целиком переносит вышедшие из окна партиции в bookings_archive через DETACH/ATTACH без копирования
+// строк и выметает старые строки из default-партиции. Архивные бронирования через API больше не видны.
+// Прогон — одна транзакция под advisory-блокировкой кластера, поэтому DDL делает только один инстанс
+@Slf4j
+public class BookingPartitionMaintainer {
+    private static final long LOCK_KEY = 4_802_001L;
+    private static final String COLUMNS = "id, start_date, end_date, item_id, booker_id, status, version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingPartitionProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicInteger hotPartitions = new AtomicInteger();
+    private volatile Boolean postgres;
+
+    public BookingPartitionMaintainer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      BookingPartitionProperties properties, MeterRegistry meterRegistry,
+                                      ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        Gauge.builder("shareit.booking.partitions.hot", hotPartitions, AtomicInteger::get)
+                .description("Партиции горячей таблицы bookings, включая default")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${shareit.booking-partitions.interval:PT1H}",
+            fixedDelayString = "${shareit.booking-partitions.interval:PT1H}")
+    public void maintain() {
+        try {
+            maintain(YearMonth.now());
+        } catch (DataAccessException e) {
+            log.warn("Обслуживание партиций бронирований не удалось, повторим через {}: {}",
+                    properties.getInterval(), e.getMessage());
+        }
+    }
+
+    void maintain(YearMonth current) {
+        if (!isPostgres()) {
+            return;
+        }
+        long started = System.nanoTime();
+        YearMonth firstHot = BookingPartitions.firstHotMonth(current, properties.getRetentionMonths());
+        Result result = transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY))) {
+                return null;
+            }
+            // DDL ждёт в очереди блокировок и задерживает всех, кто встал за ним: лучше сдаться и повторить позже
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + properties.getLockTimeout().toMillis());
+            boolean converted = !isPartitioned();
+            if (converted) {
+                convert();
+            }
+            ensureArchive();
+            List<String> partitions = partitionsOf(TABLE);
+            int created = 0;
+            for (YearMonth month : BookingPartitions.hotMonths(current, properties.getRetentionMonths(),
+                    properties.getMonthsAhead())) {
+                if (!partitions.contains(BookingPartitions.name(month))) {
+                    createPartition(month);
+                    created++;
+                }
+            }
+            int archived = 0;
+            for (String partition : partitions) {
+                YearMonth month = BookingPartitions.monthOf(partition);
+                if (month != null && month.isBefore(firstHot)) {
+                    archive(partition, month);
+                    archived++;
+                }
+            }
+            int swept = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                    " WHERE start_date < ? RETURNING " + COLUMNS + ") " +
+                    "INSERT INTO " + ARCHIVE + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved", start(firstHot));
+            hotPartitions.set(partitionsOf(TABLE).size());
+            return new Result(converted, created, archived, swept);
+        });
+        // Граница архива одна на все инстансы, поэтому о ней сообщаем и тогда, когда DDL выполнил другой инстанс
+        eventPublisher.publishEvent(new BookingsArchivedEvent(start(firstHot)));
+        if (result == null) {
+            log.debug("Партиции бронирований обслуживает другой инстанс");
+            return;
+        }
+        if (result.converted() || result.created() > 0 || result.archived() > 0 || result.swept() > 0) {
+            log.info("Партиции бронирований за {} мс: таблица {}, создано {}, в архив {}, строк из default в архив {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                    result.converted() ? "переведена на партиции" : "уже партиционирована",
+                    result.created(), result.archived(), result.swept());
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equals(product);
+            if (!postgres) {
+                log.warn("Партиционирование бронирований поддерживается только в PostgreSQL, текущая база: {}", product);
+            }
+        }
+        return postgres;
+    }
+
+    private boolean isPartitioned() {
+        return "p".equals(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = ?::regclass", String.class, TABLE));
+    }
+
+    private List<String> partitionsOf(String table) {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = ?::regclass", String.class, table);
+    }
+
+    // Разовый перевод обычной таблицы: строки копируются в default-партицию, по месяцам их разнесут
+    // следующие шаги того же прогона. Identity на партиционированной таблице до PostgreSQL 17 не поддерживается,
+    // поэтому id берётся из обычной последовательности, продолженной с того же значения
+    private void convert() {
+        jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+        Long nextId = jdbcTemplate.queryForObject(
+                "SELECT nextval(pg_get_serial_sequence('" + TABLE + "', 'id'))", Long.class);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + TABLE + "_unpartitioned");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + "_unpartitioned ALTER COLUMN id DROP IDENTITY");
+        jdbcTemplate.execute("CREATE SEQUENCE " + TABLE + "_id_seq START WITH " + nextId);
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + "_partitioned (" +
+                "id BIGINT NOT NULL DEFAULT nextval('" + TABLE + "_id_seq'), " +
+                "start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL, " +
+                "end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL, " +
+                "item_id BIGINT NOT NULL, " +
+                "booker_id BIGINT NOT NULL, " +
+                "status VARCHAR(20) NOT NULL DEFAULT 'WAITING', " +
+                "version BIGINT NOT NULL DEFAULT 0" +
+                ") PARTITION BY RANGE (start_date)");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + "_partitioned DEFAULT");
+        jdbcTemplate.execute("INSERT INTO " + TABLE + "_partitioned (" + COLUMNS + ") " +
+                "SELECT " + COLUMNS + " FROM " + TABLE + "_unpartitioned");
+        jdbcTemplate.execute("DROP TABLE " + TABLE + "_unpartitioned");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + "_partitioned RENAME TO " + TABLE);
+        jdbcTemplate.execute("ALTER SEQUENCE " + TABLE + "_id_seq OWNED BY " + TABLE + ".id");
+        // Ключ партиционирования обязан входить в первичный ключ; уникальность id обеспечивает последовательность
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT pk_booking PRIMARY KEY (id, start_date)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT fk_bookings_item " +
+                "FOREIGN KEY (item_id) REFERENCES items (id)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT fk_bookings_booker " +
+                "FOREIGN KEY (booker_id) REFERENCES users (id)");
+        jdbcTemplate.execute("CREATE INDEX ix_bookings_item_status_period ON " + TABLE +
+                " (item_id, status, start_date, end_date)");
+        jdbcTemplate.execute("CREATE INDEX ix_bookings_status_start ON " + TABLE + " (status, start_date)");
+    }
+
+    private void ensureArchive() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + ARCHIVE + " (LIKE " + TABLE + ") " +
+                "PARTITION BY RANGE (start_date)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + ARCHIVE_DEFAULT_PARTITION +
+                " PARTITION OF " + ARCHIVE + " DEFAULT");
+    }
+
+    // Строки месяца, успевшие попасть в default, переносятся в новую партицию до ATTACH, иначе он упадёт
+    private void createPartition(YearMonth month) {
+        String partition = BookingPartitions.name(month);
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + TABLE + ")");
+        moveMonth(DEFAULT_PARTITION, partition, month);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + partition +
+                " FOR VALUES " + BookingPartitions.bounds(month));
+    }
+
+    private void archive(String partition, YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+        moveMonth(ARCHIVE_DEFAULT_PARTITION, partition, month);
+        jdbcTemplate.execute("ALTER TABLE " + ARCHIVE + " ATTACH PARTITION " + partition +
+                " FOR VALUES " + BookingPartitions.bounds(month));
+    }
+
+    private void moveMonth(String from, String to, YearMonth month) {
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + from + " WHERE start_date >= ? AND start_date < ? " +
+                        "RETURNING " + COLUMNS + ") INSERT INTO " + to + " (" + COLUMNS + ") SELECT " + COLUMNS +
+                        " FROM moved",
+                start(month), start(month.plusMonths(1)));
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    private record Result(boolean converted, int created, int archived, int swept) {
+    }
+}
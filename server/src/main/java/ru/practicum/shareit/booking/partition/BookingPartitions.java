@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.partition;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Имена и границы месячных партиций bookings по start_date. Партиция месяца M называется bookings_pYYYY_MM
+// и хранит начала из [первое число M, первое число M + 1)
+final class BookingPartitions {
+    static final String TABLE = "bookings";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+    static final String ARCHIVE = TABLE + "_archive";
+    static final String ARCHIVE_DEFAULT_PARTITION = ARCHIVE + "_default";
+
+    private static final String PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd 00:00:00");
+
+    private BookingPartitions() {
+    }
+
+    static String name(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+
+    // Месяц партиции с именем из name(YearMonth) или null для любой другой таблицы
+    static YearMonth monthOf(String partition) {
+        if (!partition.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PREFIX.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    static String bounds(YearMonth month) {
+        return "FROM ('" + month.atDay(1).format(BOUND) + "') TO ('" + month.plusMonths(1).atDay(1).format(BOUND) + "')";
+    }
+
+    // Месяцы, которые остаются в горячей таблице: окно retention до текущего месяца, сам текущий месяц
+    // и месяцы вперёд, на которые уже можно бронировать
+    static List<YearMonth> hotMonths(YearMonth current, int retentionMonths, int monthsAhead) {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = firstHotMonth(current, retentionMonths);
+             !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    static YearMonth firstHotMonth(YearMonth current, int retentionMonths) {
+        return current.minusMonths(retentionMonths);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.partition;
+
+import java.time.LocalDateTime;
+
+// Бронирования, начавшиеся раньше before, ушли в архив и через API больше не видны
+public record BookingsArchivedEvent(LocalDateTime before) {
+}
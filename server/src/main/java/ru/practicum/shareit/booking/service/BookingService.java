@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingBulkResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
@@ -11,8 +13,12 @@ public interface BookingService {
 
     BookingDto approve(Long userId, Long bookingId, Boolean approved);
 
+    BookingBulkResultDto decideAll(Long userId, BookingBulkDecisionDto dto);
+
     BookingDto getById(Long userId, Long bookingId);
 
+    String getETag(Long userId, Long bookingId);
+
     List<BookingDto> getAllByBooker(Long bookerId, BookingState state);
 
     List<BookingDto> getAllByOwner(Long ownerId, BookingState state);
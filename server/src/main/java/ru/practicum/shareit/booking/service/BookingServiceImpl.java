@@ -4,6 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.calendar.BookingCalendarCache;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingBulkResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
@@ -11,17 +14,29 @@ import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
+import ru.practicum.shareit.config.ETags;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.mapper.BookingMapper.toBookingDto;
+import static ru.practicum.shareit.booking.mapper.BookingMapper.toBookingEventDto;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +46,9 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingCalendarCache calendarCache;
+    private final BookingTimeline timeline;
+    private final OutboxPublisher outboxPublisher;
 
     @Transactional
     @Override
@@ -44,6 +62,7 @@ public class BookingServiceImpl implements BookingService {
         if (item.getOwner().getId().equals(userId)) {
             throw new ForbiddenException("Владелец не может бронировать свою вещь");
         }
+        checkNotBooked(item.getId(), dto.getStart(), dto.getEnd());
 
         Booking booking = Booking.builder()
                 .start(dto.getStart())
@@ -53,7 +72,10 @@ public class BookingServiceImpl implements BookingService {
                 .status(BookingStatus.WAITING)
                 .build();
 
-        return toBookingDto(bookingRepository.save(booking));
+        calendarCache.evict(item.getId());
+        Booking saved = bookingRepository.save(booking);
+        outboxPublisher.publish(OutboxEventType.BOOKING_CREATED, saved.getId(), toBookingEventDto(saved));
+        return toBookingDto(saved);
     }
 
     @Transactional
@@ -67,20 +89,137 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingAlreadyProcessedException("Бронирование уже обработано");
         }
 
+        Long itemId = booking.getItem().getId();
+        if (approved) {
+            itemRepository.lockByIdIn(List.of(itemId));
+        }
+        int updated = approved
+                ? bookingRepository.approveIfWaiting(bookingId, itemId, booking.getStart(), booking.getEnd())
+                : bookingRepository.rejectIfWaiting(bookingId);
+        if (updated == 0) {
+            // либо другое решение успело раньше, либо вещь уже занята подтверждённым бронированием
+            if (getBooking(bookingId).getStatus() != BookingStatus.WAITING) {
+                throw new BookingAlreadyProcessedException("Бронирование уже обработано");
+            }
+            throw new ItemNotAvailableException("Вещь уже забронирована на эти даты");
+        }
+        // после UPDATE контекст очищен, booking отсоединён: меняем только ответ
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        calendarCache.evict(booking.getItem().getId());
+        timeline.onApproved(booking);
+        publishDecision(booking);
         return toBookingDto(booking);
     }
 
+    @Transactional
+    @Override
+    public BookingBulkResultDto decideAll(Long userId, BookingBulkDecisionDto dto) {
+        getUser(userId);
+        List<BookingBulkDecisionDto.Decision> decisions = dto.getDecisions();
+        Map<Long, Booking> bookings = bookingRepository.findWithItemByIdIn(decisions.stream()
+                        .map(BookingBulkDecisionDto.Decision::getBookingId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        Map<Long, BookingBulkResultDto.Result> outcomes = new HashMap<>();
+        Map<Long, Boolean> pending = new LinkedHashMap<>();
+        for (BookingBulkDecisionDto.Decision decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            Booking booking = bookings.get(bookingId);
+            if (outcomes.containsKey(bookingId) || pending.containsKey(bookingId)) {
+                continue;
+            }
+            if (booking == null) {
+                outcomes.put(bookingId, result(bookingId, BookingBulkResultDto.Outcome.NOT_FOUND,
+                        "Бронирование не найдено: " + bookingId));
+            } else if (!booking.getItem().getOwner().getId().equals(userId)) {
+                outcomes.put(bookingId, result(bookingId, BookingBulkResultDto.Outcome.FORBIDDEN,
+                        "Только владелец может подтвердить бронирование"));
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                outcomes.put(bookingId, result(bookingId, BookingBulkResultDto.Outcome.ALREADY_PROCESSED,
+                        "Бронирование уже обработано"));
+            } else {
+                pending.put(bookingId, decision.getApproved());
+            }
+        }
+
+        // Сначала вещи, как в одиночном approve, потом бронирования: порядок блокировок один, deadlock исключён.
+        // Под блокировкой вещи параллельное подтверждение пересекающегося бронирования либо уже закоммичено
+        // и видно в периодах ниже, либо ждёт этой транзакции
+        Set<Long> approvedItemIds = pending.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(entry -> bookings.get(entry.getKey()).getItem().getId())
+                .collect(Collectors.toSet());
+        if (!approvedItemIds.isEmpty()) {
+            itemRepository.lockByIdIn(approvedItemIds);
+        }
+        // Заблокированные строки до конца транзакции не изменит никто, поэтому исход по каждой известен точно;
+        // одиночное решение, успевшее раньше, сюда не попадёт, опоздавшее дождётся коммита и получит 0 строк
+        Set<Long> locked = pending.isEmpty() ? Set.of() : bookingRepository
+                .findByIdInAndStatusOrderById(pending.keySet(), BookingStatus.WAITING).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toSet());
+        List<Booking> approvals = new ArrayList<>();
+        List<Booking> rejections = new ArrayList<>();
+        pending.forEach((bookingId, approved) -> {
+            if (!locked.contains(bookingId)) {
+                outcomes.put(bookingId, result(bookingId, BookingBulkResultDto.Outcome.ALREADY_PROCESSED,
+                        "Бронирование уже обработано"));
+            } else {
+                (approved ? approvals : rejections).add(bookings.get(bookingId));
+            }
+        });
+
+        Map<Long, List<LocalDateTime[]>> busy = loadApprovedPeriods(approvals);
+        List<Booking> reserved = new ArrayList<>();
+        for (Booking booking : approvals) {
+            if (reserve(busy, booking)) {
+                reserved.add(booking);
+            } else {
+                outcomes.put(booking.getId(), conflict(booking.getId()));
+            }
+        }
+
+        if (!rejections.isEmpty()) {
+            bookingRepository.rejectAllIfWaiting(ids(rejections));
+        }
+        if (!reserved.isEmpty()) {
+            bookingRepository.approveAllIfWaiting(ids(reserved));
+        }
+        for (Booking booking : rejections) {
+            decided(booking, BookingStatus.REJECTED, outcomes);
+        }
+        for (Booking booking : reserved) {
+            decided(booking, BookingStatus.APPROVED, outcomes);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<BookingBulkResultDto.Result> results = new ArrayList<>(decisions.size());
+        for (BookingBulkDecisionDto.Decision decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            results.add(seen.add(bookingId) ? outcomes.get(bookingId)
+                    : result(bookingId, BookingBulkResultDto.Outcome.DUPLICATE, "Бронирование уже есть в этом запросе"));
+        }
+        return new BookingBulkResultDto(results);
+    }
+
     @Override
     public BookingDto getById(Long userId, Long bookingId) {
         getUser(userId);
         Booking booking = getBooking(bookingId);
-        if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwner().getId().equals(userId)) {
-            throw new ForbiddenException("Доступ только автору или владельцу");
-        }
+        checkBookerOrOwner(booking, userId);
         return toBookingDto(booking);
     }
 
+    @Override
+    public String getETag(Long userId, Long bookingId) {
+        getUser(userId);
+        Booking booking = getBooking(bookingId);
+        checkBookerOrOwner(booking, userId);
+        return ETags.of(booking.getId(), booking.getVersion(), booking.getItem().getVersion());
+    }
+
     @Override
     public List<BookingDto> getAllByBooker(Long bookerId, BookingState state) {
         getUser(bookerId);
@@ -94,13 +233,15 @@ public class BookingServiceImpl implements BookingService {
         } else if (state == BookingState.CURRENT) {
             bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(bookerId, now, now, sort);
         } else if (state == BookingState.PAST) {
-            bookings = bookingRepository.findByBookerIdAndEndBefore(bookerId, now, sort);
+            bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndBefore(bookerId, now, now, sort);
         } else if (state == BookingState.FUTURE) {
             bookings = bookingRepository.findByBookerIdAndStartAfter(bookerId, now, sort);
         } else if (state == BookingState.WAITING) {
             bookings = bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.WAITING, sort);
         } else if (state == BookingState.REJECTED) {
             bookings = bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, sort);
+        } else if (state == BookingState.EXPIRED) {
+            bookings = bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.EXPIRED, sort);
         } else {
             throw new UnsupportedStateException("Unknown state: " + state);
         }
@@ -123,13 +264,15 @@ public class BookingServiceImpl implements BookingService {
         } else if (state == BookingState.CURRENT) {
             bookings = bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndAfter(ownerId, now, now, sort);
         } else if (state == BookingState.PAST) {
-            bookings = bookingRepository.findByItem_Owner_IdAndEndBefore(ownerId, now, sort);
+            bookings = bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndBefore(ownerId, now, now, sort);
         } else if (state == BookingState.FUTURE) {
             bookings = bookingRepository.findByItem_Owner_IdAndStartAfter(ownerId, now, sort);
         } else if (state == BookingState.WAITING) {
             bookings = bookingRepository.findByItem_Owner_IdAndStatus(ownerId, BookingStatus.WAITING, sort);
         } else if (state == BookingState.REJECTED) {
             bookings = bookingRepository.findByItem_Owner_IdAndStatus(ownerId, BookingStatus.REJECTED, sort);
+        } else if (state == BookingState.EXPIRED) {
+            bookings = bookingRepository.findByItem_Owner_IdAndStatus(ownerId, BookingStatus.EXPIRED, sort);
         } else {
             throw new UnsupportedStateException("Unknown state: " + state);
         }
@@ -139,6 +282,77 @@ public class BookingServiceImpl implements BookingService {
                 .collect(Collectors.toList());
     }
 
+    private void checkBookerOrOwner(Booking booking, Long userId) {
+        if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwner().getId().equals(userId)) {
+            throw new ForbiddenException("Доступ только автору или владельцу");
+        }
+    }
+
+    // Проверка при создании только подсказка: без блокировки вещи подтверждение может успеть после неё.
+    // Пересечение подтверждённых исключает approve, который проверяет его под блокировкой вещи
+    private void checkNotBooked(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(itemId, BookingStatus.APPROVED,
+                end, start)) {
+            throw new ItemNotAvailableException("Вещь уже забронирована на эти даты");
+        }
+    }
+
+    private void publishDecision(Booking booking) {
+        outboxPublisher.publish(booking.getStatus() == BookingStatus.APPROVED
+                        ? OutboxEventType.BOOKING_APPROVED : OutboxEventType.BOOKING_REJECTED,
+                booking.getId(), toBookingEventDto(booking));
+    }
+
+    // После UPDATE контекст очищен и бронирование отсоединено: статус меняем только для ответа и события
+    private void decided(Booking booking, BookingStatus status, Map<Long, BookingBulkResultDto.Result> outcomes) {
+        booking.setStatus(status);
+        outcomes.put(booking.getId(), result(booking.getId(), status == BookingStatus.APPROVED
+                ? BookingBulkResultDto.Outcome.APPROVED : BookingBulkResultDto.Outcome.REJECTED, null));
+        calendarCache.evict(booking.getItem().getId());
+        timeline.onApproved(booking);
+        publishDecision(booking);
+    }
+
+    private static BookingBulkResultDto.Result result(Long bookingId, BookingBulkResultDto.Outcome outcome,
+                                                      String message) {
+        return new BookingBulkResultDto.Result(bookingId, outcome, message);
+    }
+
+    private static BookingBulkResultDto.Result conflict(Long bookingId) {
+        return result(bookingId, BookingBulkResultDto.Outcome.CONFLICT, "Вещь уже забронирована на эти даты");
+    }
+
+    private static Set<Long> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private Map<Long, List<LocalDateTime[]>> loadApprovedPeriods(List<Booking> approvals) {
+        Map<Long, List<LocalDateTime[]>> busy = new HashMap<>();
+        if (approvals.isEmpty()) {
+            return busy;
+        }
+        LocalDateTime from = approvals.stream().map(Booking::getStart).min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime to = approvals.stream().map(Booking::getEnd).max(LocalDateTime::compareTo).orElseThrow();
+        Set<Long> itemIds = approvals.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet());
+        for (Object[] period : bookingRepository.findApprovedPeriods(itemIds, from, to)) {
+            busy.computeIfAbsent((Long) period[0], id -> new ArrayList<>())
+                    .add(new LocalDateTime[]{(LocalDateTime) period[1], (LocalDateTime) period[2]});
+        }
+        return busy;
+    }
+
+    // Проверяет пересечение с уже подтверждёнными, включая одобренные раньше в этом же запросе, и занимает период
+    private boolean reserve(Map<Long, List<LocalDateTime[]>> busy, Booking booking) {
+        List<LocalDateTime[]> periods = busy.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>());
+        for (LocalDateTime[] period : periods) {
+            if (period[0].isBefore(booking.getEnd()) && period[1].isAfter(booking.getStart())) {
+                return false;
+            }
+        }
+        periods.add(new LocalDateTime[]{booking.getStart(), booking.getEnd()});
+        return true;
+    }
+
     private User getUser(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден: " + id));
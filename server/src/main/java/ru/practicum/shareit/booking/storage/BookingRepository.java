@@ -1,19 +1,31 @@
 package ru.practicum.shareit.booking.storage;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+// В PostgreSQL bookings разбита на партиции по start_date: условие на start отсекает лишние партиции,
+// поэтому запросы по прошедшим бронированиям ограничивают и start, хотя он следует из end
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByBookerId(Long bookerId, Sort sort);
 
     List<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Sort sort);
 
-    List<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime now, Sort sort);
+    List<Booking> findByBookerIdAndStartBeforeAndEndBefore(Long bookerId, LocalDateTime start, LocalDateTime end, Sort sort);
 
     List<Booking> findByBookerIdAndStartAfter(Long bookerId, LocalDateTime now, Sort sort);
 
@@ -23,15 +35,86 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     List<Booking> findByItem_Owner_IdAndStatus(Long ownerId, BookingStatus status, Sort sort);
 
-    List<Booking> findByItem_Owner_IdAndEndBefore(Long ownerId, LocalDateTime now, Sort sort);
+    List<Booking> findByItem_Owner_IdAndStartBeforeAndEndBefore(Long ownerId, LocalDateTime start, LocalDateTime end,
+                                                               Sort sort);
 
     List<Booking> findByItem_Owner_IdAndStartAfter(Long ownerId, LocalDateTime now, Sort sort);
 
     List<Booking> findByItem_Owner_IdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime start, LocalDateTime end, Sort sort);
 
-    List<Booking> findByItemIdAndStatusAndEndBefore(Long itemId, BookingStatus status, LocalDateTime now, Sort sort);
+    List<Booking> findByItemIdAndStatusAndStartBeforeAndEndBefore(Long itemId, BookingStatus status, LocalDateTime start,
+                                                                  LocalDateTime end, Sort sort);
 
     List<Booking> findByItemIdAndStatusAndStartAfter(Long itemId, BookingStatus status, LocalDateTime now, Sort sort);
 
-    List<Booking> findByItemId(Long itemId);
+    List<Booking> findByItemIdAndStartBefore(Long itemId, LocalDateTime start);
+
+    @Query("SELECT b.start, b.end, b.status FROM Booking b WHERE b.item.id = ?1 AND b.status IN ?2 " +
+            "AND b.start < ?4 AND b.end > ?3 ORDER BY b.start")
+    List<Object[]> findPeriodsByItemId(Long itemId, Collection<BookingStatus> statuses, LocalDateTime from,
+                                       LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT b.item.id, b.id, b.booker.id, b.start, b.end FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED ORDER BY b.item.id, b.start")
+    Stream<Object[]> streamApprovedPeriods();
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.id IN ?1")
+    List<Booking> findWithItemByIdIn(Collection<Long> ids);
+
+    @Query("SELECT b.item.id, b.start, b.end FROM Booking b " +
+            "WHERE b.item.id IN ?1 AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND b.start < ?3 AND b.end > ?2")
+    List<Object[]> findApprovedPeriods(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to);
+
+    // Условные UPDATE решают гонку одной командой: из параллельных решений по бронированию
+    // строку меняет только первое, остальные получают 0. Версию поднимаем вручную, JPQL её не трогает.
+    // NOT EXISTS по подтверждённым надёжен только под блокировкой вещи (ItemRepository.lockByIdIn)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id = ?1 AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "AND NOT EXISTS (SELECT o.id FROM Booking o WHERE o.item.id = ?2 " +
+            "AND o.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND o.start < ?4 AND o.end > ?3)")
+    int approveIfWaiting(Long bookingId, Long itemId, LocalDateTime start, LocalDateTime end);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.BookingStatus.REJECTED, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id = ?1 AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING")
+    int rejectIfWaiting(Long bookingId);
+
+    // Массовое решение: блокируем ожидающие строки по порядку id, чтобы параллельные пакеты не встали в deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Booking> findByIdInAndStatusOrderById(Collection<Long> ids, BookingStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id IN ?1 AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "AND NOT EXISTS (SELECT o.id FROM Booking o WHERE o.item = b.item " +
+            "AND o.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND o.start < b.end AND o.end > b.start)")
+    int approveAllIfWaiting(Collection<Long> bookingIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.BookingStatus.REJECTED, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id IN ?1 AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING")
+    int rejectAllIfWaiting(Collection<Long> bookingIds);
+
+    // lock.timeout = -2 — это SKIP LOCKED: строки, занятые другим узлом, пропускаются, а не ждут
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<Booking> findByStatusAndStartBeforeOrderByStart(BookingStatus status, LocalDateTime cutoff, Limit limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.BookingStatus.EXPIRED, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id IN ?1 AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING")
+    int expireWaiting(Collection<Long> bookingIds);
+
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfter(Long itemId, BookingStatus status,
+                                                           LocalDateTime end, LocalDateTime start);
 }
@@ -0,0 +1,272 @@
+package ru.practicum.shareit.booking.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// События бронирований для букера и владельца вещи. Источник задаёт shareit.booking-stream.fan-out:
+// local — in-process получатель outbox этого инстанса, notify — LISTEN/NOTIFY, события видят все инстансы.
+// У каждого подключения своя ограниченная очередь; медленный клиент теряет самые старые события
+@Slf4j
+@Component
+public class BookingEventStream {
+    private static final String BOOKING = "booking";
+
+    private final boolean localFanOut;
+    private final ItemRepository itemRepository;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+    private final Duration timeout;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter sent;
+    private final Counter dropped;
+
+    public BookingEventStream(@Value("${shareit.booking-stream.fan-out:local}") String fanOut,
+                              ItemRepository itemRepository, ObjectMapper objectMapper,
+                              @Value("${shareit.booking-stream.buffer-size:32}") int bufferSize,
+                              @Value("${shareit.booking-stream.max-connections-per-user:4}") int maxConnectionsPerUser,
+                              @Value("${shareit.booking-stream.timeout:PT30M}") Duration timeout,
+                              MeterRegistry meterRegistry) {
+        this.localFanOut = "local".equals(fanOut);
+        this.itemRepository = itemRepository;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.timeout = timeout;
+        this.sent = Counter.builder("shareit.booking.stream.sent").register(meterRegistry);
+        this.dropped = Counter.builder("shareit.booking.stream.dropped")
+                .description("События, вытесненные из переполненной очереди медленного клиента")
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.stream.connections", this, BookingEventStream::connections)
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        return register(userId, new SseEmitter(timeout.toMillis()));
+    }
+
+    // Сверх лимита закрываем самое старое подключение: скорее всего, это брошенная вкладка
+    SseEmitter register(Long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        Subscriber evicted = null;
+        Set<Subscriber> own = subscribers.computeIfAbsent(userId, id -> new LinkedHashSet<>());
+        synchronized (own) {
+            own.add(subscriber);
+            if (own.size() > maxConnectionsPerUser) {
+                evicted = own.iterator().next();
+                own.remove(evicted);
+            }
+        }
+        emitter.onCompletion(() -> remove(userId, subscriber));
+        emitter.onTimeout(() -> remove(userId, subscriber));
+        emitter.onError(error -> remove(userId, subscriber));
+        if (evicted != null) {
+            evicted.emitter().complete();
+        }
+        return emitter;
+    }
+
+    @EventListener(OutboxMessage.class)
+    public void onOutboxMessage(OutboxMessage message) {
+        if (localFanOut) {
+            dispatch(message);
+        }
+    }
+
+    public void dispatch(OutboxMessage message) {
+        if (!BOOKING.equals(message.aggregateType()) || subscribers.isEmpty()) {
+            return;
+        }
+        // Ошибка здесь заставила бы relay повторить доставку, поэтому только логируем
+        try {
+            BookingEventDto booking = objectMapper.readValue(message.payload(), BookingEventDto.class);
+            Event event = new Event(String.valueOf(message.id()), message.eventType().name(), message.payload());
+            publish(booking.getBookerId(), event);
+            itemRepository.findById(booking.getItemId())
+                    .map(item -> item.getOwner().getId())
+                    .ifPresent(ownerId -> publish(ownerId, event));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Не удалось отправить событие {} в поток бронирований: {}", message.id(), e.getMessage());
+        }
+    }
+
+    // Пустой комментарий не даёт прокси закрыть молчащее соединение и выявляет отвалившихся клиентов
+    @Scheduled(initialDelayString = "${shareit.booking-stream.heartbeat:PT15S}",
+            fixedDelayString = "${shareit.booking-stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        forEachSubscriber(subscriber -> {
+            if (subscriber.offerIfIdle(Event.HEARTBEAT)) {
+                drainLater(subscriber);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        forEachSubscriber(subscriber -> subscriber.emitter().complete());
+        senders.shutdownNow();
+    }
+
+    double connections() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void publish(Long userId, Event event) {
+        Set<Subscriber> own = subscribers.get(userId);
+        if (own == null) {
+            return;
+        }
+        List<Subscriber> targets;
+        synchronized (own) {
+            targets = List.copyOf(own);
+        }
+        for (Subscriber subscriber : targets) {
+            if (subscriber.offer(event)) {
+                dropped.increment();
+            }
+            drainLater(subscriber);
+        }
+    }
+
+    private void drainLater(Subscriber subscriber) {
+        if (subscriber.claimDrain()) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        for (Event event = subscriber.next(); event != null; event = subscriber.next()) {
+            try {
+                subscriber.emitter().send(event.toSse());
+                if (event != Event.HEARTBEAT) {
+                    sent.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // клиент ушёл: контейнер сам вызовет onError/onCompletion, очередь больше не нужна
+                subscriber.close();
+                return;
+            }
+        }
+    }
+
+    private void remove(Long userId, Subscriber subscriber) {
+        subscriber.close();
+        subscribers.computeIfPresent(userId, (id, own) -> {
+            synchronized (own) {
+                own.remove(subscriber);
+                return own.isEmpty() ? null : own;
+            }
+        });
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        for (Set<Subscriber> own : subscribers.values()) {
+            List<Subscriber> targets;
+            synchronized (own) {
+                targets = List.copyOf(own);
+            }
+            targets.forEach(action);
+        }
+    }
+
+    record Event(String id, String name, String data) {
+        static final Event HEARTBEAT = new Event(null, null, null);
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("");
+            }
+            return SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    // Очередь одного подключения; флаг draining не даёт двум отправителям писать в один emitter
+    static final class Subscriber {
+        private final SseEmitter emitter;
+        private final int capacity;
+        private final Deque<Event> queue;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.capacity = capacity;
+            this.queue = new ArrayDeque<>(capacity);
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        // true, если ради места пришлось выбросить самое старое событие
+        synchronized boolean offer(Event event) {
+            if (closed) {
+                return false;
+            }
+            boolean full = queue.size() == capacity;
+            if (full) {
+                queue.pollFirst();
+            }
+            queue.addLast(event);
+            return full;
+        }
+
+        synchronized boolean offerIfIdle(Event event) {
+            if (closed || draining || !queue.isEmpty()) {
+                return false;
+            }
+            queue.addLast(event);
+            return true;
+        }
+
+        synchronized boolean claimDrain() {
+            if (closed || draining || queue.isEmpty()) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        // null снимает флаг в той же синхронизации, поэтому событие, добавленное после, запустит новый drain
+        synchronized Event next() {
+            Event event = closed ? null : queue.pollFirst();
+            if (event == null) {
+                draining = false;
+            }
+            return event;
+        }
+
+        synchronized void close() {
+            closed = true;
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+// Отдельное соединение вне пула: LISTEN держит его всё время работы инстанса.
+// Уведомления, пришедшие пока соединение переподключается, теряются: клиент перечитает список при переподключении
+@Slf4j
+public class BookingNotificationListener {
+    private static final int POLL_MILLIS = 1_000;
+    private static final long RECONNECT_MILLIS = 5_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final ObjectMapper objectMapper;
+    private final Consumer<OutboxMessage> dispatcher;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread thread;
+
+    public BookingNotificationListener(String url, String username, String password, ObjectMapper objectMapper,
+                                       Consumer<OutboxMessage> dispatcher) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.objectMapper = objectMapper;
+        this.dispatcher = dispatcher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "booking-notifications");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(POLL_MILLIS * 2L);
+        }
+    }
+
+    boolean isListening() {
+        return listening;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + PgNotifyBookingSink.CHANNEL);
+                }
+                listening = true;
+                log.info("Поток бронирований слушает канал {}", PgNotifyBookingSink.CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Соединение для уведомлений о бронированиях потеряно, повтор через {} мс: {}",
+                            RECONNECT_MILLIS, e.getMessage());
+                    sleep();
+                }
+            } finally {
+                listening = false;
+            }
+        }
+    }
+
+    private void dispatch(String notification) {
+        try {
+            dispatcher.accept(PgNotifyBookingSink.decode(objectMapper, notification));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Не удалось разобрать уведомление о бронировании: {}", e.getMessage());
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(RECONNECT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.outbox.OutboxMessage;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import java.time.LocalDateTime;
+
+// Каждую строку outbox забирает один инстанс, а NOTIFY получают все, кто слушает канал
+public class PgNotifyBookingSink implements OutboxSink {
+    static final String CHANNEL = "shareit_booking_events";
+    private static final String BOOKING = "booking";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public PgNotifyBookingSink(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "booking-notify";
+    }
+
+    @Override
+    public void deliver(OutboxMessage message) {
+        if (!BOOKING.equals(message.aggregateType())) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, encode(message));
+    }
+
+    // payload уходит строкой: в OutboxMessage он @JsonRawValue и обратно в String не читается
+    String encode(OutboxMessage message) {
+        return objectMapper.createObjectNode()
+                .put("id", message.id())
+                .put("aggregateType", message.aggregateType())
+                .put("aggregateId", message.aggregateId())
+                .put("eventType", message.eventType().name())
+                .put("payload", message.payload())
+                .put("created", message.created().toString())
+                .toString();
+    }
+
+    static OutboxMessage decode(ObjectMapper objectMapper, String notification) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(notification);
+        return new OutboxMessage(node.get("id").asLong(),
+                node.get("aggregateType").asText(),
+                node.get("aggregateId").asLong(),
+                OutboxEventType.valueOf(node.get("eventType").asText()),
+                node.get("payload").asText(),
+                LocalDateTime.parse(node.get("created").asText()));
+    }
+}
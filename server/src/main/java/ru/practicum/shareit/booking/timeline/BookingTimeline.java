@@ -0,0 +1,188 @@
+package ru.practicum.shareit.booking.timeline;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.calendar.BusyIntervals;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.partition.BookingsArchivedEvent;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Необязательный индекс подтверждённых бронирований по вещам в памяти: последнее и следующее бронирование
+// для владельца ищутся бинарным поиском вместо двух сортирующих запросов. Строится из базы после старта
+// и пополняется подтверждениями, закоммиченными на этом инстансе, поэтому годится только для одного сервера,
+// пишущего бронирования. Пока построение не закончено, isReady() false и вызывающие идут в базу
+@Slf4j
+@Component
+public class BookingTimeline {
+    // узел ConcurrentHashMap и упакованный ключ
+    private static final long ENTRY_OVERHEAD_BYTES = 32 + 16;
+
+    private final boolean enabled;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<Long, ItemTimeline> items = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    // Изменения, закоммиченные во время загрузки: применяются после неё в том же порядке
+    private final List<Runnable> pending = new ArrayList<>();
+    private volatile boolean ready;
+
+    public BookingTimeline(@Value("${shareit.booking-timeline.enabled:false}") boolean enabled,
+                           BookingRepository bookingRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("shareit.booking.timeline.bookings", this, BookingTimeline::bookings)
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.timeline.memory", this, BookingTimeline::footprintBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // Читаем с primary (транзакция не readOnly): реплика может отставать от подтверждений, пришедших во время загрузки
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = bookingRepository.streamApprovedPeriods()) {
+                rows.forEach(row -> items.computeIfAbsent((Long) row[0], id -> new ItemTimeline())
+                        .append((Long) row[1], (Long) row[2], BusyIntervals.toMicros((LocalDateTime) row[3]),
+                                BusyIntervals.toMicros((LocalDateTime) row[4])));
+            }
+        });
+        synchronized (lock) {
+            pending.forEach(Runnable::run);
+            pending.clear();
+            ready = true;
+        }
+        long bookings = (long) bookings();
+        long bytes = (long) footprintBytes();
+        log.info("Таймлайн бронирований построен за {} мс: {} вещей, {} бронирований, {} КБ ({} МБ на миллион)",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), items.size(), bookings, bytes / 1024,
+                bookings == 0 ? 0 : bytes * 1_000_000 / bookings / (1024 * 1024));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Бронирование, подтверждённое в текущей транзакции, попадает в таймлайн после её коммита
+    public void onApproved(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            if (booking.getStatus() == BookingStatus.APPROVED) {
+                add(booking);
+            }
+        });
+    }
+
+    // Бронирования удалённой вещи больше не нужны ни last, ни next
+    public void onItemDeleted(Long itemId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> items.remove(itemId));
+    }
+
+    @EventListener
+    public void onArchived(BookingsArchivedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long before = BusyIntervals.toMicros(event.before());
+        afterCommit(() -> {
+            for (Long itemId : items.keySet()) {
+                items.computeIfPresent(itemId, (id, timeline) ->
+                        timeline.removeStartingBefore(before) == 0 ? null : timeline);
+            }
+        });
+    }
+
+    public Entry last(Long itemId, LocalDateTime now) {
+        ItemTimeline timeline = items.get(itemId);
+        return timeline == null ? null : timeline.last(BusyIntervals.toMicros(now));
+    }
+
+    public Entry next(Long itemId, LocalDateTime now) {
+        ItemTimeline timeline = items.get(itemId);
+        return timeline == null ? null : timeline.next(BusyIntervals.toMicros(now));
+    }
+
+    double bookings() {
+        long bookings = 0;
+        for (ItemTimeline timeline : items.values()) {
+            bookings += timeline.size();
+        }
+        return bookings;
+    }
+
+    double footprintBytes() {
+        long bytes = 0;
+        for (ItemTimeline timeline : items.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + timeline.footprintBytes();
+        }
+        return bytes;
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            whenReady(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                whenReady(change);
+            }
+        });
+    }
+
+    private void whenReady(Runnable change) {
+        if (!ready) {
+            synchronized (lock) {
+                if (!ready) {
+                    pending.add(change);
+                    return;
+                }
+            }
+        }
+        change.run();
+    }
+
+    // compute, а не computeIfAbsent: иначе запись могла бы попасть в таймлайн, только что убранный архивацией
+    private void add(Booking booking) {
+        items.compute(booking.getItem().getId(), (id, timeline) -> {
+            ItemTimeline target = timeline == null ? new ItemTimeline() : timeline;
+            target.add(booking.getId(), booking.getBooker().getId(), BusyIntervals.toMicros(booking.getStart()),
+                    BusyIntervals.toMicros(booking.getEnd()));
+            return target;
+        });
+    }
+
+    public record Entry(long id, long bookerId) {
+    }
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.booking.timeline;
+
+import java.util.Arrays;
+
+// Подтверждённые бронирования одной вещи в параллельных примитивных массивах по возрастанию начала.
+// maxEnds[i] — самый поздний конец среди первых i + 1 бронирований, по нему поиск последнего бронирования
+// останавливается, как только раньше уже ничего лучше нет
+final class ItemTimeline {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int ARRAYS = 6;
+    // заголовок объекта со ссылками на массивы и заголовки самих массивов
+    private static final long OVERHEAD_BYTES = 48 + ARRAYS * 16;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private long[] maxEnds = new long[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] bookers = new long[INITIAL_CAPACITY];
+    // id по возрастанию для проверки дубликатов; после загрузки и обрезки пересобирается при первом add
+    private long[] sortedIds = new long[INITIAL_CAPACITY];
+    private boolean sortedIdsStale;
+    private int size;
+
+    // Бронирование, начинающееся не раньше всех имеющихся, как при упорядоченной загрузке на старте
+    synchronized void append(long id, long booker, long start, long end) {
+        insert(size, id, booker, start, end);
+        sortedIdsStale = true;
+    }
+
+    // Вставляет бронирование на его место по началу; уже имеющееся пропускается
+    synchronized boolean add(long id, long booker, long start, long end) {
+        if (sortedIdsStale) {
+            sortedIds = Arrays.copyOf(ids, ids.length);
+            Arrays.sort(sortedIds, 0, size);
+            sortedIdsStale = false;
+        }
+        int found = Arrays.binarySearch(sortedIds, 0, size, id);
+        if (found >= 0) {
+            return false;
+        }
+        insert(firstStartingAfter(start), id, booker, start, end);
+        int at = -found - 1;
+        System.arraycopy(sortedIds, at, sortedIds, at + 1, size - 1 - at);
+        sortedIds[at] = id;
+        return true;
+    }
+
+    // Убирает бронирования, начавшиеся раньше instant, как это делает архивация; возвращает, сколько осталось
+    synchronized int removeStartingBefore(long instant) {
+        int removed = firstStartingAtOrAfter(instant);
+        if (removed == 0) {
+            return size;
+        }
+        size -= removed;
+        System.arraycopy(starts, removed, starts, 0, size);
+        System.arraycopy(ends, removed, ends, 0, size);
+        System.arraycopy(ids, removed, ids, 0, size);
+        System.arraycopy(bookers, removed, bookers, 0, size);
+        for (int i = 0; i < size; i++) {
+            maxEnds[i] = i == 0 ? ends[0] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+        sortedIdsStale = true;
+        return size;
+    }
+
+    // Бронирование с самым поздним концом строго до now
+    synchronized BookingTimeline.Entry last(long now) {
+        int best = -1;
+        long bestEnd = Long.MIN_VALUE;
+        for (int i = firstStartingAtOrAfter(now) - 1; i >= 0 && maxEnds[i] > bestEnd; i--) {
+            if (ends[i] < now && ends[i] > bestEnd) {
+                best = i;
+                bestEnd = ends[i];
+            }
+        }
+        return best < 0 ? null : new BookingTimeline.Entry(ids[best], bookers[best]);
+    }
+
+    // Бронирование с самым ранним началом строго после now
+    synchronized BookingTimeline.Entry next(long now) {
+        int i = firstStartingAfter(now);
+        return i < size ? new BookingTimeline.Entry(ids[i], bookers[i]) : null;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized long footprintBytes() {
+        return OVERHEAD_BYTES + (long) ARRAYS * Long.BYTES * starts.length;
+    }
+
+    private void insert(int position, long id, long booker, long start, long end) {
+        if (size == starts.length) {
+            int capacity = size + (size >> 1) + 1;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            maxEnds = Arrays.copyOf(maxEnds, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            bookers = Arrays.copyOf(bookers, capacity);
+            sortedIds = Arrays.copyOf(sortedIds, capacity);
+        }
+        int tail = size - position;
+        System.arraycopy(starts, position, starts, position + 1, tail);
+        System.arraycopy(ends, position, ends, position + 1, tail);
+        System.arraycopy(ids, position, ids, position + 1, tail);
+        System.arraycopy(bookers, position, bookers, position + 1, tail);
+        starts[position] = start;
+        ends[position] = end;
+        ids[position] = id;
+        bookers[position] = booker;
+        size++;
+        for (int i = position; i < size; i++) {
+            maxEnds[i] = i == 0 ? ends[0] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+    }
+
+    private int firstStartingAfter(long instant) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] <= instant) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int firstStartingAtOrAfter(long instant) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < instant) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.calendar.BookingCalendarCache;
+import ru.practicum.shareit.booking.expiry.BookingExpiryJob;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(BookingExpiryProperties.class)
+@ConditionalOnProperty(prefix = "shareit.booking-expiry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BookingExpiryConfig {
+
+    @Bean
+    public BookingExpiryJob bookingExpiryJob(BookingRepository bookingRepository, BookingCalendarCache calendarCache,
+                                             BookingExpiryProperties properties, OutboxPublisher outboxPublisher,
+                                             PlatformTransactionManager transactionManager,
+                                             MeterRegistry meterRegistry) {
+        return new BookingExpiryJob(bookingRepository, calendarCache, properties, outboxPublisher,
+                transactionManager, meterRegistry);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking-expiry")
+public class BookingExpiryProperties {
+    private boolean enabled = true;
+    private Duration interval = Duration.ofMinutes(1);
+    private int batchSize = 500;
+    private int maxBatchesPerRun = 20;
+    private Duration grace = Duration.ZERO;
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.partition.BookingPartitionMaintainer;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(BookingPartitionProperties.class)
+@ConditionalOnProperty(prefix = "shareit.booking-partitions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BookingPartitionConfig {
+
+    @Bean
+    public BookingPartitionMaintainer bookingPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                                                 PlatformTransactionManager transactionManager,
+                                                                 BookingPartitionProperties properties,
+                                                                 MeterRegistry meterRegistry,
+                                                                 ApplicationEventPublisher eventPublisher) {
+        return new BookingPartitionMaintainer(jdbcTemplate, transactionManager, properties, meterRegistry,
+                eventPublisher);
+    }
+}
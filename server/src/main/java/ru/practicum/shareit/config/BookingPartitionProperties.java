@@ -0,0 +1,18 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking-partitions")
+public class BookingPartitionProperties {
+    private boolean enabled = true;
+    private Duration interval = Duration.ofHours(1);
+    private int monthsAhead = 3;
+    private int retentionMonths = 24;
+    private Duration lockTimeout = Duration.ofSeconds(5);
+}
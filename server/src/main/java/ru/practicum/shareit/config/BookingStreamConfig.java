@@ -0,0 +1,30 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.stream.BookingEventStream;
+import ru.practicum.shareit.booking.stream.BookingNotificationListener;
+import ru.practicum.shareit.booking.stream.PgNotifyBookingSink;
+
+@Configuration
+@ConditionalOnProperty(prefix = "shareit.booking-stream", name = "fan-out", havingValue = "notify")
+public class BookingStreamConfig {
+
+    @Bean
+    public PgNotifyBookingSink pgNotifyBookingSink(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        return new PgNotifyBookingSink(jdbcTemplate, objectMapper);
+    }
+
+    @Bean
+    public BookingNotificationListener bookingNotificationListener(DataSourceProperties dataSourceProperties,
+                                                                   ObjectMapper objectMapper,
+                                                                   BookingEventStream bookingEventStream) {
+        return new BookingNotificationListener(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(), objectMapper,
+                bookingEventStream::dispatch);
+    }
+}
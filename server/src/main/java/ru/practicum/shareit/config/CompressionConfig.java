@@ -0,0 +1,202 @@
+package ru.practicum.shareit.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+
+// Jackson сбрасывает поток по ходу записи, поэтому Tomcat отдаёт JSON чанками и сжимает его даже меньше
+// min-response-size. Буферизация сжимаемых тел возвращает Content-Length, остальное проходит как есть
+@Configuration
+@ConditionalOnProperty(prefix = "server.compression", name = "enabled", havingValue = "true")
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<ContentLengthFilter> contentLengthFilter(ServerProperties serverProperties) {
+        List<MimeType> mimeTypes = Arrays.stream(serverProperties.getCompression().getMimeTypes())
+                .map(MimeTypeUtils::parseMimeType)
+                .toList();
+        FilterRegistrationBean<ContentLengthFilter> registration =
+                new FilterRegistrationBean<>(new ContentLengthFilter(mimeTypes));
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+
+    static class ContentLengthFilter extends OncePerRequestFilter {
+        private final List<MimeType> mimeTypes;
+
+        ContentLengthFilter(List<MimeType> mimeTypes) {
+            this.mimeTypes = mimeTypes;
+        }
+
+        // Поток событий не сжимается и не должен ждать конца ответа
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            String accept = request.getHeader(HttpHeaders.ACCEPT);
+            return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        }
+
+        @Override
+        protected boolean shouldNotFilterErrorDispatch() {
+            // @ResponseStatus-исключения рендерятся через /error, их тело тоже должно получить Content-Length
+            return false;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            CompressibleBodyBuffer wrapper = new CompressibleBodyBuffer(response, mimeTypes);
+            try {
+                chain.doFilter(request, wrapper);
+            } finally {
+                // тело асинхронного ответа пишется после выхода из фильтра, копировать его будет некому
+                if (request.isAsyncStarted()) {
+                    wrapper.passThrough();
+                } else {
+                    wrapper.copyBodyToResponse();
+                }
+            }
+        }
+    }
+
+    // Буферизует тело, только если при первой записи тип содержимого уже известен и сжимаем
+    static class CompressibleBodyBuffer extends ContentCachingResponseWrapper {
+        private final List<MimeType> mimeTypes;
+        private Boolean buffering;
+
+        CompressibleBodyBuffer(HttpServletResponse response, List<MimeType> mimeTypes) {
+            super(response);
+            this.mimeTypes = mimeTypes;
+        }
+
+        void passThrough() throws IOException {
+            if (buffering == null) {
+                buffering = false;
+            } else if (buffering) {
+                buffering = false;
+                copyBodyToResponse(false);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return decide() ? super.getOutputStream() : raw().getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return decide() ? super.getWriter() : raw().getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (decide()) {
+                super.flushBuffer();
+            } else {
+                raw().flushBuffer();
+            }
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            if (buffers()) {
+                super.setContentLength(len);
+            } else {
+                raw().setContentLength(len);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (buffers()) {
+                super.setContentLengthLong(len);
+            } else {
+                raw().setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (buffers()) {
+                super.setHeader(name, value);
+            } else {
+                raw().setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (buffers()) {
+                super.addHeader(name, value);
+            } else {
+                raw().addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (buffers()) {
+                super.setIntHeader(name, value);
+            } else {
+                raw().setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            if (buffers()) {
+                super.addIntHeader(name, value);
+            } else {
+                raw().addIntHeader(name, value);
+            }
+        }
+
+        // Решение фиксируется при первом обращении к телу: к этому моменту конвертер уже выставил Content-Type
+        private boolean decide() {
+            if (buffering == null) {
+                buffering = compressible();
+            }
+            return buffering;
+        }
+
+        private boolean buffers() {
+            return buffering != null ? buffering : compressible();
+        }
+
+        private boolean compressible() {
+            String contentType = getContentType();
+            if (contentType == null) {
+                return false;
+            }
+            try {
+                MediaType type = MediaType.parseMediaType(contentType);
+                return mimeTypes.stream().anyMatch(type::equalsTypeAndSubtype);
+            } catch (InvalidMediaTypeException e) {
+                return false;
+            }
+        }
+
+        private HttpServletResponse raw() {
+            return (HttpServletResponse) getResponse();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Object... parts) {
+        StringBuilder source = new StringBuilder();
+        for (Object part : parts) {
+            append(source, part);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static void append(StringBuilder source, Object part) {
+        if (part instanceof Collection<?> collection) {
+            collection.forEach(element -> append(source, element));
+        } else if (part instanceof Object[] array) {
+            source.append(Arrays.deepToString(array));
+        } else {
+            source.append(part);
+        }
+        source.append('|');
+    }
+}
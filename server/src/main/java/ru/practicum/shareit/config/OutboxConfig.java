@@ -0,0 +1,47 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestClient;
+import ru.practicum.shareit.outbox.OutboxRelay;
+import ru.practicum.shareit.outbox.sink.ApplicationEventOutboxSink;
+import ru.practicum.shareit.outbox.sink.HttpOutboxSink;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+import ru.practicum.shareit.outbox.storage.OutboxEventRepository;
+
+// События пишутся в outbox всегда, а доставляющий их relay можно выключить на инстансе.
+// Получатели — все бины OutboxSink, новое направление — ещё один бин
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit.outbox", name = "in-process-enabled", havingValue = "true",
+            matchIfMissing = true)
+    public ApplicationEventOutboxSink applicationEventOutboxSink(ApplicationEventPublisher eventPublisher) {
+        return new ApplicationEventOutboxSink(eventPublisher);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit.outbox.http", name = "url")
+    public HttpOutboxSink httpOutboxSink(RestClient.Builder restClientBuilder, OutboxProperties properties) {
+        return new HttpOutboxSink(restClientBuilder, properties.getHttp().getUrl(), properties.getHttp().getTimeout());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository, ObjectProvider<OutboxSink> sinks,
+                                   OutboxProperties properties, PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        return new OutboxRelay(outboxEventRepository, sinks.orderedStream().toList(), properties,
+                transactionManager, meterRegistry);
+    }
+}
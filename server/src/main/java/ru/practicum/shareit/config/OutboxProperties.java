@@ -0,0 +1,29 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.outbox")
+public class OutboxProperties {
+    private boolean enabled = true;
+    private Duration interval = Duration.ofSeconds(1);
+    private int batchSize = 100;
+    private int maxBatchesPerRun = 10;
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private Duration maxRetryBackoff = Duration.ofMinutes(10);
+    private Duration lease = Duration.ofMinutes(5);
+    private boolean inProcessEnabled = true;
+    private final Http http = new Http();
+
+    @Getter
+    @Setter
+    public static class Http {
+        private String url;
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.metrics.ServiceTimingPostProcessor;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(prefix = "shareit.metrics.services", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceMetricsConfig {
+
+    // static и ObjectProvider: пост-процессор создаётся раньше реестра метрик и не должен тянуть его за собой
+    @Bean
+    public static ServiceTimingPostProcessor serviceTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceTimingPostProcessor(meterRegistry,
+                List.of(ItemService.class, BookingService.class, UserService.class, ItemRequestService.class));
+    }
+}
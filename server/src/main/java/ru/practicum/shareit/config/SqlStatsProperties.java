@@ -0,0 +1,27 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.sql-stats")
+public class SqlStatsProperties {
+    private boolean enabled = true;
+    private boolean responseHeaders = false;
+    private int warnThreshold = 20;
+    private int repeatThreshold = 5;
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        private String method;
+        private String path;
+        private int warnThreshold;
+    }
+}
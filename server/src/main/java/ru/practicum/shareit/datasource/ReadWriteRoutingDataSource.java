@@ -0,0 +1,69 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Отправляет read-only транзакции в пул реплики, остальные — в primary. Должен стоять за
+// LazyConnectionDataSourceProxy: JpaTransactionManager берёт соединение read-only транзакции раньше,
+// чем публикуется флаг read-only, и без прокси всё уходило бы в primary
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    enum Pool { PRIMARY, REPLICA }
+
+    private final ReadYourWritesGuard guard;
+    private final Counter writes;
+    private final Counter reads;
+    private final Counter readsAfterWrite;
+    private final Counter outsideTransaction;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesGuard guard,
+                                      MeterRegistry meterRegistry) {
+        this.guard = guard;
+        this.writes = counter(meterRegistry, Pool.PRIMARY, "write");
+        this.reads = counter(meterRegistry, Pool.REPLICA, "read");
+        this.readsAfterWrite = counter(meterRegistry, Pool.PRIMARY, "read-your-writes");
+        this.outsideTransaction = counter(meterRegistry, Pool.PRIMARY, "no-transaction");
+        setTargetDataSources(Map.of(Pool.PRIMARY, primary, Pool.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            outsideTransaction.increment();
+            return Pool.PRIMARY;
+        }
+        Long userId = ReadYourWritesGuard.currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        guard.recordWrite(userId);
+                    }
+                });
+            }
+            return Pool.PRIMARY;
+        }
+        if (guard.isInWindow(userId)) {
+            readsAfterWrite.increment();
+            return Pool.PRIMARY;
+        }
+        reads.increment();
+        return Pool.REPLICA;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Pool pool, String reason) {
+        return Counter.builder("shareit.datasource.routing")
+                .tag("pool", pool.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
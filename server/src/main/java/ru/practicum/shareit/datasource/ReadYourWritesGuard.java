@@ -0,0 +1,68 @@
+package ru.practicum.shareit.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Помнит, когда каждый X-Sharer-User-Id последний раз закоммитил запись, чтобы его чтения шли в primary,
+// пока реплика не догонит. Пользователя текущего запроса привязывает ReadYourWritesFilter
+public class ReadYourWritesGuard {
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+
+    private final ConcurrentMap<Long, Long> lastWrites = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final AtomicLong nextSweep;
+    private final LongSupplier nanoTime;
+
+    public ReadYourWritesGuard(Duration window) {
+        this(window, System::nanoTime);
+    }
+
+    ReadYourWritesGuard(Duration window, LongSupplier nanoTime) {
+        this.windowNanos = window.toNanos();
+        this.nanoTime = nanoTime;
+        this.nextSweep = new AtomicLong(nanoTime.getAsLong() + windowNanos);
+    }
+
+    static void bindUser(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    static void unbindUser() {
+        CURRENT_USER.remove();
+    }
+
+    static Long currentUser() {
+        return CURRENT_USER.get();
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        lastWrites.put(userId, now);
+        sweepIfDue(now);
+    }
+
+    public boolean isInWindow(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(userId);
+        return lastWrite != null && nanoTime.getAsLong() - lastWrite < windowNanos;
+    }
+
+    int trackedUsers() {
+        return lastWrites.size();
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now >= due && nextSweep.compareAndSet(due, now + windowNanos)) {
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+        }
+    }
+}
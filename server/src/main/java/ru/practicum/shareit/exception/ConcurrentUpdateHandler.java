@@ -0,0 +1,23 @@
+package ru.practicum.shareit.exception;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+
+// Проверка @Version отклонила запись: объект успели изменить параллельно, клиенту нужно перечитать его
+@Slf4j
+@RestControllerAdvice
+public class ConcurrentUpdateHandler {
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public void onConcurrentUpdate(ObjectOptimisticLockingFailureException e,
+                                   HttpServletResponse response) throws IOException {
+        log.warn("Конфликт версий {} с id {}", e.getPersistentClassName(), e.getIdentifier());
+        response.sendError(HttpStatus.CONFLICT.value(), "Объект изменён другим запросом, перечитайте его и повторите");
+    }
+}
@@ -2,14 +2,19 @@ package ru.practicum.shareit.item.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.config.ETags;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
@@ -40,8 +45,14 @@ public class ItemController {
     @GetMapping("/{itemId}")
     public ItemWithBookingsDto getById(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
-            @PathVariable Long itemId) {
-        return itemService.findByIdWithDetails(userId, itemId);
+            @PathVariable Long itemId,
+            WebRequest request) {
+        // ETag считаем по уже собранному ответу: один набор запросов и одна транзакция на тело и тег
+        ItemWithBookingsDto details = itemService.findByIdWithDetails(userId, itemId);
+        if (request.checkNotModified(ETags.of(details))) {
+            return null;
+        }
+        return details;
     }
 
     @GetMapping
@@ -51,10 +62,26 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam String text) {
+    public List<ItemDto> search(
+            @RequestParam String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (from != null && to != null) {
+            return itemService.searchAvailable(text, from, to);
+        }
         return itemService.search(text);
     }
 
+    @GetMapping("/{itemId}/calendar")
+    public ItemCalendarDto getCalendar(
+            @RequestHeader(X_SHARER_USER_ID) Long userId,
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean includeWaiting) {
+        return itemService.getCalendar(userId, itemId, from, to, includeWaiting);
+    }
+
     @DeleteMapping("/{itemId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(
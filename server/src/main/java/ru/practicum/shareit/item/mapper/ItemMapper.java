@@ -1,7 +1,10 @@
 package ru.practicum.shareit.item.mapper;
 
+import ru.practicum.shareit.booking.calendar.BusyIntervals;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
 import ru.practicum.shareit.item.dto.BookingShortDto;
+import ru.practicum.shareit.item.dto.BusyIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
@@ -51,6 +54,21 @@ public final class ItemMapper {
     }
 
 
+    public static BookingShortDto toBookingShortDto(BookingTimeline.Entry entry) {
+        if (entry == null) return null;
+        return BookingShortDto.builder()
+                .id(entry.id())
+                .bookerId(entry.bookerId())
+                .build();
+    }
+
+    public static BusyIntervalDto toBusyIntervalDto(BusyIntervals.Interval interval) {
+        return BusyIntervalDto.builder()
+                .start(interval.start())
+                .end(interval.end())
+                .build();
+    }
+
     public static CommentDto toCommentDto(Comment comment) {
         return CommentDto.builder()
                 .id(comment.getId())
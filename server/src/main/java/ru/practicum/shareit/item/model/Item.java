@@ -2,10 +2,13 @@ package ru.practicum.shareit.item.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "items")
 @Getter
 @Setter
@@ -21,6 +24,9 @@ public class Item {
     @ToString.Include
     private Long id;
 
+    @Version
+    private Long version;
+
     @Column(nullable = false)
     @ToString.Include
     private String name;
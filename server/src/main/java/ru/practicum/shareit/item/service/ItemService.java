@@ -2,9 +2,11 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -20,6 +22,11 @@ public interface ItemService {
 
     List<ItemDto> search(String text);
 
+    List<ItemDto> searchAvailable(String text, LocalDateTime from, LocalDateTime to);
+
+    ItemCalendarDto getCalendar(Long userId, Long itemId, LocalDateTime from, LocalDateTime to,
+                                boolean includeWaiting);
+
     void delete(Long userId, Long itemId);
 
     CommentDto addComment(Long userId, Long itemId, CommentCreateDto dto);
@@ -5,9 +5,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.calendar.BookingCalendarCache;
+import ru.practicum.shareit.booking.calendar.BusyIntervals;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
 import ru.practicum.shareit.exception.CommentNotAllowedException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -17,6 +20,8 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.CommentRepository;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -40,6 +45,9 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository requestRepository;
+    private final BookingCalendarCache calendarCache;
+    private final BookingTimeline timeline;
+    private final OutboxPublisher outboxPublisher;
 
 
     @Transactional
@@ -62,7 +70,9 @@ public class ItemServiceImpl implements ItemService {
                 .build();
 
         Item saved = itemRepository.save(item);
-        return ItemMapper.toItemDto(saved);
+        ItemDto created = ItemMapper.toItemDto(saved);
+        outboxPublisher.publish(OutboxEventType.ITEM_CREATED, saved.getId(), created);
+        return created;
     }
 
     @Transactional
@@ -75,8 +85,9 @@ public class ItemServiceImpl implements ItemService {
         Optional.ofNullable(itemDto.getDescription()).ifPresent(item::setDescription);
         Optional.ofNullable(itemDto.getAvailable()).ifPresent(item::setAvailable);
 
-        Item updated = itemRepository.save(item);
-        return ItemMapper.toItemDto(updated);
+        ItemDto updated = ItemMapper.toItemDto(itemRepository.save(item));
+        outboxPublisher.publish(OutboxEventType.ITEM_UPDATED, itemId, updated);
+        return updated;
     }
 
     @Override
@@ -130,13 +141,48 @@ public class ItemServiceImpl implements ItemService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ItemDto> searchAvailable(String text, LocalDateTime from, LocalDateTime to) {
+        if (text == null || text.isBlank() || !from.isBefore(to)) {
+            return List.of();
+        }
+        return itemRepository.searchAvailable(text, from, to).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    // Не readOnly: кэш наполняется с primary, реплика может ещё не видеть бронирование, которое его сбросило
+    @Transactional
+    @Override
+    public ItemCalendarDto getCalendar(Long userId, Long itemId, LocalDateTime from, LocalDateTime to,
+                                       boolean includeWaiting) {
+        getUser(userId);
+        getItem(itemId);
+
+        List<BusyIntervalDto> busy = List.of();
+        if (from.isBefore(to)) {
+            BookingCalendarCache.ItemCalendar calendar = calendarCache.get(itemId, from, to);
+            BusyIntervals intervals = includeWaiting ? calendar.withWaiting() : calendar.approved();
+            busy = intervals.within(from, to).stream()
+                    .map(ItemMapper::toBusyIntervalDto)
+                    .collect(Collectors.toList());
+        }
+        return ItemCalendarDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .busy(busy)
+                .build();
+    }
 
     @Transactional
     @Override
     public void delete(Long userId, Long itemId) {
         Item item = getItem(itemId);
         checkOwner(item, userId);
+        outboxPublisher.publish(OutboxEventType.ITEM_DELETED, itemId, ItemMapper.toItemDto(item));
         itemRepository.deleteById(itemId);
+        timeline.onItemDeleted(itemId);
     }
 
     @Transactional
@@ -150,7 +196,7 @@ public class ItemServiceImpl implements ItemService {
         log.info("Пользователь и предмет найдены");
 
         log.info("Поиск бронирований для предмета {}", itemId);
-        List<Booking> bookings = bookingRepository.findByItemId(itemId);
+        List<Booking> bookings = bookingRepository.findByItemIdAndStartBefore(itemId, LocalDateTime.now().plusHours(3));
         log.info("Найдено бронирований: {}", bookings.size());
 
 
@@ -193,16 +239,22 @@ public class ItemServiceImpl implements ItemService {
         log.info("Комментарий успешно создан с id: {}", saved.getId());
         log.info("=== КОНЕЦ ДОБАВЛЕНИЯ КОММЕНТАРИЯ ===");
 
-        return toCommentDto(saved);
+        CommentDto created = toCommentDto(saved);
+        outboxPublisher.publish(OutboxEventType.COMMENT_ADDED, itemId, created);
+        return created;
     }
 
     private BookingShortDto getLastBooking(Long itemId) {
         LocalDateTime now = LocalDateTime.now();
+        if (timeline.isReady()) {
+            return ItemMapper.toBookingShortDto(timeline.last(itemId, now));
+        }
         return bookingRepository
-                .findByItemIdAndStatusAndEndBefore(
+                .findByItemIdAndStatusAndStartBeforeAndEndBefore(
                         itemId,
                         BookingStatus.APPROVED,
                         now,
+                        now,
                         Sort.by(Sort.Direction.DESC, "end")
                 )
                 .stream()
@@ -213,6 +265,9 @@ public class ItemServiceImpl implements ItemService {
 
     private BookingShortDto getNextBooking(Long itemId) {
         LocalDateTime now = LocalDateTime.now();
+        if (timeline.isReady()) {
+            return ItemMapper.toBookingShortDto(timeline.next(itemId, now));
+        }
         return bookingRepository
                 .findByItemIdAndStatusAndStartAfter(
                         itemId,
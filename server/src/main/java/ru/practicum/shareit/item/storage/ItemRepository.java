@@ -1,12 +1,18 @@
 package ru.practicum.shareit.item.storage;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Item> findByOwnerId(Long ownerId);
 
     @Query("SELECT i FROM Item i " +
@@ -15,5 +21,23 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%')))")
     List<Item> search(String text);
 
+    @Query("SELECT i FROM Item i " +
+            "WHERE i.available = true " +
+            "AND (UPPER(i.name) LIKE UPPER(CONCAT('%', ?1, '%')) " +
+            "OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%'))) " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.item = i " +
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND b.start < ?3 AND b.end > ?2)")
+    List<Item> searchAvailable(String text, LocalDateTime from, LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Item> findByRequestId(Long requestId);
+
+    // Подтверждения бронирований одной вещи идут по очереди: проверку пересечений в UPDATE при READ COMMITTED
+    // не видит параллельное незакоммиченное подтверждение. Порядок id исключает взаимную блокировку
+    @Query(value = "SELECT id FROM items WHERE id IN ?1 ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(Collection<Long> ids);
+
+    @Query("SELECT i.id, i.version FROM Item i WHERE i.request.id = ?1 ORDER BY i.id")
+    List<Object[]> findVersionTagsByRequestId(Long requestId);
 }
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.booking.dto.BookingState;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+// Пишет shareit.service{service,method,state,outcome,exception} вокруг каждого вызова сервиса. Таймеры
+// находятся один раз на метод, состояние и тип исключения, на горячем пути — поиск в map и два nanoTime;
+// перцентили задаются настройками распределения shareit.service
+public class ServiceTimingInterceptor implements MethodInterceptor {
+    public static final String METRIC = "shareit.service";
+    private static final String NONE = "none";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final List<Class<?>> services;
+    private final ConcurrentMap<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    public ServiceTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry, List<Class<?>> services) {
+        this.meterRegistry = meterRegistry;
+        this.services = services;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        MethodTimers methodTimers = timers.get(method);
+        if (methodTimers == null) {
+            methodTimers = timers.computeIfAbsent(method, m -> new MethodTimers(meterRegistry.getObject(),
+                    serviceName(invocation.getThis()), m));
+        }
+        BookingState state = methodTimers.state(invocation.getArguments());
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            methodTimers.success(state).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            methodTimers.failure(state, e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private String serviceName(Object target) {
+        return services.stream()
+                .filter(service -> service.isInstance(target))
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElse(target.getClass().getSimpleName());
+    }
+
+    private static final class MethodTimers {
+        private final MeterRegistry registry;
+        private final String service;
+        private final String method;
+        private final int stateIndex;
+        private final Timer success;
+        private final Map<BookingState, Timer> successByState = new EnumMap<>(BookingState.class);
+        private final ConcurrentMap<String, Timer> failures = new ConcurrentHashMap<>();
+
+        private MethodTimers(MeterRegistry registry, String service, Method method) {
+            this.registry = registry;
+            this.service = service;
+            this.method = method.getName();
+            this.stateIndex = List.of(method.getParameterTypes()).indexOf(BookingState.class);
+            this.success = timer(NONE, "success", NONE);
+            if (stateIndex >= 0) {
+                for (BookingState state : BookingState.values()) {
+                    successByState.put(state, timer(state.name(), "success", NONE));
+                }
+            }
+        }
+
+        private BookingState state(Object[] arguments) {
+            return stateIndex >= 0 ? (BookingState) arguments[stateIndex] : null;
+        }
+
+        private Timer success(BookingState state) {
+            return state != null ? successByState.get(state) : success;
+        }
+
+        private Timer failure(BookingState state, Throwable e) {
+            String stateTag = state != null ? state.name() : NONE;
+            String exception = e.getClass().getSimpleName();
+            return failures.computeIfAbsent(stateTag + '|' + exception, key -> timer(stateTag, "error", exception));
+        }
+
+        private Timer timer(String state, String outcome, String exception) {
+            return Timer.builder(METRIC)
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("state", state)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+// Ставит ServiceTimingInterceptor перед заданными интерфейсами сервисов. Advisor идёт раньше существующих,
+// так что замер включает транзакцию вокруг вызова
+public class ServiceTimingPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    public ServiceTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry, List<Class<?>> services) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return Modifier.isPublic(method.getModifiers()) && services.stream()
+                        .anyMatch(service -> service.isAssignableFrom(targetClass)
+                                && ClassUtils.hasMethod(service, method.getName(), method.getParameterTypes()));
+            }
+        };
+        pointcut.setClassFilter(targetClass -> services.stream().anyMatch(service -> service.isAssignableFrom(targetClass)));
+        this.advisor = new DefaultPointcutAdvisor(pointcut, new ServiceTimingInterceptor(meterRegistry, services));
+        setBeforeExistingAdvisors(true);
+    }
+}
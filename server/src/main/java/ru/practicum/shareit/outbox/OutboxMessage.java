@@ -0,0 +1,15 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.time.LocalDateTime;
+
+// То, что получает sink. id не меняется между повторными доставками, по нему получатели отсеивают дубли
+public record OutboxMessage(Long id,
+                            String aggregateType,
+                            Long aggregateId,
+                            OutboxEventType eventType,
+                            @JsonRawValue String payload,
+                            LocalDateTime created) {
+}
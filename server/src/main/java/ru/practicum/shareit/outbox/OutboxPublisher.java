@@ -0,0 +1,78 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Пишет доменные события в таблицу outbox в той же транзакции, что и изменение: событие есть ровно тогда,
+// когда изменение закоммичено. События транзакции копятся и вставляются одним JDBC-батчем перед коммитом,
+// откаченная транзакция не пишет ничего
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+    private static final String INSERT = "INSERT INTO outbox_events " +
+            "(aggregate_type, aggregate_id, event_type, payload, created, attempts, next_attempt_at) " +
+            "VALUES (?, ?, ?, ?, ?, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    // payload сериализуется сразу, чтобы последующие изменения объекта не попали в событие
+    public void publish(OutboxEventType type, Long aggregateId, Object payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Событие outbox пишется только в транзакции изменения: " + type);
+        }
+        try {
+            pending().add(new Pending(type, aggregateId, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие " + type, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Pending> pending() {
+        List<Pending> events = (List<Pending>) TransactionSynchronizationManager.getResource(this);
+        if (events != null) {
+            return events;
+        }
+        List<Pending> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                write(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OutboxPublisher.this);
+            }
+        });
+        return created;
+    }
+
+    private void write(List<Pending> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.type().getAggregateType());
+            statement.setLong(2, event.aggregateId());
+            statement.setString(3, event.type().name());
+            statement.setString(4, event.payload());
+            statement.setTimestamp(5, now);
+            statement.setTimestamp(6, now);
+        });
+    }
+
+    private record Pending(OutboxEventType type, Long aggregateId, String payload) {
+    }
+}
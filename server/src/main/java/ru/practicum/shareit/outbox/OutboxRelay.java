@@ -0,0 +1,180 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.OutboxProperties;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+import ru.practicum.shareit.outbox.storage.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Разбирает очередь outbox батчами. Батч забирается короткой транзакцией со SKIP LOCKED: next_attempt_at
+// сдвигается на срок аренды, и другие инстансы его не видят. Доставка идёт уже без транзакции и блокировок,
+// каждому получателю отдельно; принявшие событие записываются в delivered_to и при повторе пропускаются.
+// Доставленное всеми удаляется, остальное ждёт повтора с экспоненциальной задержкой. Если процесс упадёт
+// после доставки, событие придёт повторно по истечении аренды, так что доставка не реже раза
+@Slf4j
+public class OutboxRelay {
+    private static final int MAX_ERROR_LENGTH = 1024;
+    private static final String SEPARATOR = ",";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Timer batches;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, List<OutboxSink> sinks,
+                       OutboxProperties properties, PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.delivered = Counter.builder("shareit.outbox.delivered").register(meterRegistry);
+        this.failed = Counter.builder("shareit.outbox.failed").register(meterRegistry);
+        this.batches = Timer.builder("shareit.outbox.batch").register(meterRegistry);
+        if (sinks.isEmpty()) {
+            log.warn("Нет ни одного получателя outbox: события копятся в таблице до появления получателя");
+        }
+    }
+
+    @Scheduled(initialDelayString = "${shareit.outbox.interval:PT1S}",
+            fixedDelayString = "${shareit.outbox.interval:PT1S}")
+    public void relay() {
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            if (relayBatch(LocalDateTime.now()) < properties.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    // Обрабатывает один батч событий, срок которых наступил к now; возвращает, сколько забрано
+    public int relayBatch(LocalDateTime now) {
+        if (sinks.isEmpty()) {
+            return 0;
+        }
+        Integer taken = batches.record(() -> {
+            List<OutboxEvent> events = claim(now);
+            // Аренду считаем по часам процесса: now в тестах бывает сдвинут
+            long deadline = System.nanoTime() + properties.getLease().toNanos();
+            Map<Long, Attempt> attempts = new LinkedHashMap<>();
+            for (OutboxEvent event : events) {
+                if (System.nanoTime() - deadline > 0) {
+                    // Остаток батча вернётся в очередь с концом аренды, не расходуя попыток
+                    break;
+                }
+                attempts.put(event.getId(), deliver(event));
+            }
+            finish(attempts, now);
+            return events.size();
+        });
+        return taken;
+    }
+
+    private List<OutboxEvent> claim(LocalDateTime now) {
+        return transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.findByNextAttemptAtLessThanEqualOrderById(now,
+                    Limit.of(properties.getBatchSize()));
+            if (!events.isEmpty()) {
+                outboxEventRepository.lease(events.stream().map(OutboxEvent::getId).toList(),
+                        now.plus(properties.getLease()));
+            }
+            return events;
+        });
+    }
+
+    private Attempt deliver(OutboxEvent event) {
+        OutboxMessage message = toMessage(event);
+        Set<String> done = deliveredTo(event);
+        RuntimeException error = null;
+        for (OutboxSink sink : sinks) {
+            if (done.contains(sink.name())) {
+                continue;
+            }
+            try {
+                sink.deliver(message);
+                done.add(sink.name());
+            } catch (RuntimeException e) {
+                if (error == null) {
+                    error = e;
+                }
+                log.debug("Событие outbox {} {} не принято получателем {}: {}",
+                        event.getId(), event.getEventType(), sink.name(), String.valueOf(e));
+            }
+        }
+        return new Attempt(done, error);
+    }
+
+    private void finish(Map<Long, Attempt> attempts, LocalDateTime now) {
+        List<Long> done = new ArrayList<>();
+        Map<Long, Attempt> retries = new LinkedHashMap<>();
+        attempts.forEach((id, attempt) -> {
+            if (attempt.error() == null) {
+                done.add(id);
+            } else {
+                retries.put(id, attempt);
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!done.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(done);
+            }
+            if (!retries.isEmpty()) {
+                outboxEventRepository.findAllById(retries.keySet())
+                        .forEach(event -> retryLater(event, retries.get(event.getId()), now));
+            }
+        });
+        delivered.increment(done.size());
+        failed.increment(retries.size());
+    }
+
+    private void retryLater(OutboxEvent event, Attempt attempt, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(now.plus(backoff(attempts)));
+        event.setDeliveredTo(attempt.delivered().isEmpty() ? null : String.join(SEPARATOR, attempt.delivered()));
+        String error = String.valueOf(attempt.error());
+        event.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        log.warn("Событие outbox {} {} не доставлено (попытка {}), повтор после {}: {}",
+                event.getId(), event.getEventType(), attempts, event.getNextAttemptAt(), error);
+    }
+
+    Duration backoff(int attempts) {
+        Duration backoff = properties.getRetryBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(properties.getMaxRetryBackoff()) > 0 ? properties.getMaxRetryBackoff() : backoff;
+    }
+
+    private static Set<String> deliveredTo(OutboxEvent event) {
+        Set<String> delivered = new LinkedHashSet<>();
+        if (event.getDeliveredTo() != null && !event.getDeliveredTo().isEmpty()) {
+            delivered.addAll(Arrays.asList(event.getDeliveredTo().split(SEPARATOR)));
+        }
+        return delivered;
+    }
+
+    private static OutboxMessage toMessage(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getPayload(), event.getCreated());
+    }
+
+    private record Attempt(Set<String> delivered, RuntimeException error) {
+    }
+}
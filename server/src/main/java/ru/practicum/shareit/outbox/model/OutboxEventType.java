@@ -0,0 +1,21 @@
+package ru.practicum.shareit.outbox.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Доменные события outbox. Агрегат задаёт ключ, по которому группируют получатели: комментарии относятся
+// к своей вещи, поэтому индексатор видит их в потоке вещи
+@Getter
+@RequiredArgsConstructor
+public enum OutboxEventType {
+    BOOKING_CREATED("booking"),
+    BOOKING_APPROVED("booking"),
+    BOOKING_REJECTED("booking"),
+    BOOKING_EXPIRED("booking"),
+    ITEM_CREATED("item"),
+    ITEM_UPDATED("item"),
+    ITEM_DELETED("item"),
+    COMMENT_ADDED("item");
+
+    private final String aggregateType;
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.outbox.sink;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+// Передаёт сообщения in-process слушателям @EventListener(OutboxMessage.class). Слушатели выполняются
+// синхронно в потоке relay, исключение любого из них — неудачная доставка
+@RequiredArgsConstructor
+public class ApplicationEventOutboxSink implements OutboxSink {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String name() {
+        return "in-process";
+    }
+
+    @Override
+    public void deliver(OutboxMessage message) {
+        eventPublisher.publishEvent(message);
+    }
+}
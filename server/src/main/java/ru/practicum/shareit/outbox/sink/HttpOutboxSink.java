@@ -0,0 +1,40 @@
+package ru.practicum.shareit.outbox.sink;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+import java.time.Duration;
+
+// POST каждого сообщения JSON-ом на один URL. Ответ не 2xx или ошибка ввода-вывода — неудачная доставка
+public class HttpOutboxSink implements OutboxSink {
+    public static final String EVENT_ID_HEADER = "X-Outbox-Event-Id";
+
+    private final RestClient restClient;
+
+    public HttpOutboxSink(RestClient.Builder builder, String url, Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = builder
+                .baseUrl(url)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void deliver(OutboxMessage message) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(EVENT_ID_HEADER, String.valueOf(message.id()))
+                .body(message)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
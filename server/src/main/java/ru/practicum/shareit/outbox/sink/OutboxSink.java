@@ -0,0 +1,13 @@
+package ru.practicum.shareit.outbox.sink;
+
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+// Получатель событий outbox. Доставка не реже раза: после сбоя процесса событие может прийти повторно
+public interface OutboxSink {
+
+    // Постоянное имя для outbox_events.delivered_to: по нему повтор пропускает получателей, уже принявших событие
+    String name();
+
+    // Доставляет сообщение или бросает исключение, которое назначает повтор
+    void deliver(OutboxMessage message);
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -40,7 +41,11 @@ public class ItemRequestController {
     @GetMapping("/{requestId}")
     public ItemRequestDto getById(
             @RequestHeader(X_SHARER_USER_ID) Long userId,
-            @PathVariable Long requestId) {
+            @PathVariable Long requestId,
+            WebRequest request) {
+        if (request.checkNotModified(requestService.getETag(userId, requestId))) {
+            return null;
+        }
         return requestService.getById(userId, requestId);
     }
 }
\ No newline at end of file
@@ -2,11 +2,14 @@ package ru.practicum.shareit.request.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "requests")
 @Getter
 @Setter
@@ -22,6 +25,9 @@ public class ItemRequest {
     @ToString.Include
     private Long id;
 
+    @Version
+    private Long version;
+
     @Column(nullable = false, length = 1024)
     @ToString.Include
     private String description;
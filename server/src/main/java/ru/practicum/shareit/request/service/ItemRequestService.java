@@ -13,4 +13,6 @@ public interface ItemRequestService {
     List<ItemRequestDto> getAllRequests(Long userId, int from, int size);
 
     ItemRequestDto getById(Long userId, Long requestId);
+
+    String getETag(Long userId, Long requestId);
 }
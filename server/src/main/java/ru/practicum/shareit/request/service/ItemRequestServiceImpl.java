@@ -5,6 +5,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.ETags;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
@@ -71,6 +72,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ItemRequestMapper.toItemRequestDto(request, getItemsForRequest(requestId));
     }
 
+    @Override
+    public String getETag(Long userId, Long requestId) {
+        getUser(userId);
+        ItemRequest request = getRequest(requestId);
+        return ETags.of(request.getId(), request.getVersion(), itemRepository.findVersionTagsByRequestId(requestId));
+    }
+
     private List<Item> getItemsForRequest(Long requestId) {
         return itemRepository.findByRequestId(requestId);
     }
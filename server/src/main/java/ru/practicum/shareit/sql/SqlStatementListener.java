@@ -0,0 +1,30 @@
+package ru.practicum.shareit.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+// Передаёт каждый выполненный через прокси DataSource запрос в статистику текущего потока.
+// JDBC-батч считается одним обращением
+public class SqlStatementListener implements QueryExecutionListener {
+    private static final String START = SqlStatementListener.class.getName() + ".start";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (SqlStatementStats.current() != null) {
+            execInfo.addCustomValue(START, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatementStats stats = SqlStatementStats.current();
+        Long start = execInfo.getCustomValue(START, Long.class);
+        if (stats == null || start == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        stats.record(queryInfoList.get(0).getQuery(), System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Запросы текущего потока между start() и stop(): число, суммарное время в драйвере и сколько раз
+// выполнялся самый повторяющийся SQL (признак N+1)
+public final class SqlStatementStats {
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private int count;
+    private long nanos;
+    private final Map<String, Integer> executions = new HashMap<>();
+    private String mostRepeated;
+    private int mostRepeatedCount;
+
+    private SqlStatementStats() {
+    }
+
+    public static SqlStatementStats start() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    void record(String sql, long elapsedNanos) {
+        count++;
+        nanos += elapsedNanos;
+        int repeats = executions.merge(sql, 1, Integer::sum);
+        if (repeats > mostRepeatedCount) {
+            mostRepeatedCount = repeats;
+            mostRepeated = sql;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public String getMostRepeated() {
+        return mostRepeated;
+    }
+
+    public int getMostRepeatedCount() {
+        return mostRepeatedCount;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.practicum.shareit.config.SqlStatsProperties;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Считает SQL-запросы и время в драйвере для каждого HTTP-запроса. Всегда пишет shareit.sql.statements
+// и shareit.sql.time по эндпоинту и предупреждает о запросах сверх порога или с повтором одного запроса
+// (обычная форма N+1); с включёнными заголовками ответа ещё отдаёт X-Sql-Count и X-Sql-Time-Ms
+@Slf4j
+public class SqlStatsFilter extends OncePerRequestFilter {
+    public static final String X_SQL_COUNT = "X-Sql-Count";
+    public static final String X_SQL_TIME_MS = "X-Sql-Time-Ms";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final SqlStatsProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Integer> thresholds = new HashMap<>();
+
+    public SqlStatsFilter(SqlStatsProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (SqlStatsProperties.Endpoint endpoint : properties.getEndpoints()) {
+            thresholds.put(endpoint.getMethod() + " " + endpoint.getPath(), endpoint.getWarnThreshold());
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementStats.start();
+        // Поток событий нельзя буферизовать: клиент не получит ничего, пока соединение не закроется
+        ContentCachingResponseWrapper buffered = properties.isResponseHeaders() && !isEventStream(request)
+                ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            chain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            SqlStatementStats.stop();
+            report(request, stats);
+            if (buffered != null) {
+                buffered.setHeader(X_SQL_COUNT, String.valueOf(stats.getCount()));
+                buffered.setHeader(X_SQL_TIME_MS, String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getNanos())));
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private void report(HttpServletRequest request, SqlStatementStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN;
+        String method = request.getMethod();
+        DistributionSummary.builder("shareit.sql.statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getCount());
+        Timer.builder("shareit.sql.time")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+
+        String endpoint = method + " " + uri;
+        int threshold = thresholds.getOrDefault(endpoint, properties.getWarnThreshold());
+        if (stats.getCount() > threshold) {
+            warning(method, uri, "threshold");
+            log.warn("{} выполнил {} SQL-запросов за {} мс, порог {}", endpoint, stats.getCount(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getNanos()), threshold);
+        }
+        if (stats.getMostRepeatedCount() >= properties.getRepeatThreshold()) {
+            warning(method, uri, "repeated");
+            log.warn("Похоже на N+1: {} выполнил один и тот же запрос {} раз: {}", endpoint,
+                    stats.getMostRepeatedCount(), stats.getMostRepeated());
+        }
+    }
+
+    private void warning(String method, String uri, String reason) {
+        Counter.builder("shareit.sql.warnings")
+                .tag("method", method)
+                .tag("uri", uri)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
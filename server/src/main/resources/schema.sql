@@ -11,6 +11,7 @@ CREATE TABLE IF NOT EXISTS requests (
     description VARCHAR(1024) NOT NULL,
     requestor_id BIGINT NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT pk_request PRIMARY KEY (id),
     CONSTRAINT fk_requests_requestor FOREIGN KEY (requestor_id) REFERENCES users (id)
 );
@@ -22,6 +23,7 @@ CREATE TABLE IF NOT EXISTS items (
     is_available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT pk_item PRIMARY KEY (id),
     CONSTRAINT fk_items_owner FOREIGN KEY (owner_id) REFERENCES users (id),
     CONSTRAINT fk_items_request FOREIGN KEY (request_id) REFERENCES requests (id)
@@ -34,6 +36,7 @@ CREATE TABLE IF NOT EXISTS bookings (
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'WAITING',
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_bookings_item FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_bookings_booker FOREIGN KEY (booker_id) REFERENCES users (id)
@@ -48,4 +51,33 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT pk_comment PRIMARY KEY (id),
     CONSTRAINT fk_comments_item FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_comments_author FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Проверка пересечений: NOT EXISTS по item_id + status и диапазону дат. GiST по tsrange быстрее, но не переносим на H2
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_period ON bookings (item_id, status, start_date, end_date);
+
+-- Фоновое истечение WAITING: выборка по статусу в порядке начала
+CREATE INDEX IF NOT EXISTS ix_bookings_status_start ON bookings (status, start_date);
+
+-- Outbox: события пишутся в транзакции изменения, relay доставляет их получателям и удаляет
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload VARCHAR(16384) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    last_error VARCHAR(1024),
+    delivered_to VARCHAR(1024),
+    CONSTRAINT pk_outbox_event PRIMARY KEY (id)
+);
+
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS delivered_to VARCHAR(1024);
+
+CREATE INDEX IF NOT EXISTS ix_outbox_events_next_attempt ON outbox_events (next_attempt_at, id);
@@ -0,0 +1,35 @@
+package ru.practicum.shareit;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Настоящий PostgreSQL для кода, который на H2 не проверить; один процесс на весь прогон тестов
+public final class PostgresTestDatabase {
+    public static final String USERNAME = "postgres";
+    public static final String PASSWORD = "";
+
+    private static EmbeddedPostgres postgres;
+
+    private PostgresTestDatabase() {
+    }
+
+    public static synchronized String jdbcUrl(String database) {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // процесс завершается, PostgreSQL остановится вместе с ним
+                }
+            }));
+        }
+        return postgres.getJdbcUrl(USERNAME, database);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking.calendar;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingCalendarCacheTest {
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+    private static final LocalDateTime WEEK_END = DAY.plusDays(7);
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+
+    @Test
+    void shouldServeRepeatedReadsFromCacheTest() {
+        BookingCalendarCache cache = cache(true);
+        when(bookingRepository.findPeriodsByItemId(eq(1L), any(), any(), any())).thenReturn(periods(0));
+
+        cache.get(1L, DAY, WEEK_END);
+        cache.get(1L, DAY, WEEK_END);
+
+        verify(bookingRepository, times(1)).findPeriodsByItemId(eq(1L), any(), any(), any());
+    }
+
+    @Test
+    void shouldNotKeepCalendarLoadedBeforeEvictionTest() {
+        BookingCalendarCache cache = cache(true);
+        // Сброс приходит, пока календарь читается из базы
+        when(bookingRepository.findPeriodsByItemId(eq(1L), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    cache.evict(1L);
+                    return periods(0);
+                })
+                .thenReturn(periods(0, 5));
+
+        assertThat(cache.get(1L, DAY, WEEK_END).approved().size()).isEqualTo(1);
+        assertThat(cache.get(1L, DAY, WEEK_END).approved().size()).isEqualTo(2);
+        assertThat(cache.get(1L, DAY, WEEK_END).approved().size()).isEqualTo(2);
+
+        verify(bookingRepository, times(2)).findPeriodsByItemId(eq(1L), any(), any(), any());
+    }
+
+    @Test
+    void shouldLoadEveryTimeWhenDisabledTest() {
+        BookingCalendarCache cache = cache(false);
+        when(bookingRepository.findPeriodsByItemId(eq(1L), any(), any(), any())).thenReturn(periods(0));
+
+        cache.get(1L, DAY, WEEK_END);
+        cache.get(1L, DAY, WEEK_END);
+
+        verify(bookingRepository, times(2)).findPeriodsByItemId(eq(1L), any(), any(), any());
+    }
+
+    @Test
+    void shouldLoadOnlyHorizonAndServeWindowsInsideItTest() {
+        BookingCalendarCache cache = cache(true);
+        when(bookingRepository.findPeriodsByItemId(eq(1L), any(), any(), any())).thenReturn(periods(0));
+
+        cache.get(1L, DAY, WEEK_END);
+        cache.get(1L, DAY.minusDays(20), DAY.plusDays(300));
+
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(bookingRepository, times(1)).findPeriodsByItemId(eq(1L), any(), from.capture(), to.capture());
+        assertThat(from.getValue()).isBetween(DAY.minusDays(32), DAY.minusDays(30));
+        assertThat(to.getValue()).isBetween(DAY.plusDays(363), DAY.plusDays(365));
+    }
+
+    @Test
+    void shouldReadWindowBeyondHorizonWithoutCachingTest() {
+        BookingCalendarCache cache = cache(true);
+        LocalDateTime farFrom = DAY.plusYears(3);
+        LocalDateTime farTo = farFrom.plusDays(7);
+        when(bookingRepository.findPeriodsByItemId(eq(1L), any(), any(), any())).thenReturn(periods(0));
+
+        cache.get(1L, farFrom, farTo);
+        cache.get(1L, farFrom, farTo);
+
+        verify(bookingRepository, times(2)).findPeriodsByItemId(eq(1L), any(), eq(farFrom), eq(farTo));
+    }
+
+    private BookingCalendarCache cache(boolean enabled) {
+        return new BookingCalendarCache(bookingRepository, enabled, 100, Duration.ofMinutes(10), Duration.ofDays(30),
+                Duration.ofDays(365));
+    }
+
+    private static List<Object[]> periods(int... startDays) {
+        List<Object[]> periods = new ArrayList<>();
+        for (int day : startDays) {
+            periods.add(new Object[]{DAY.plusDays(day), DAY.plusDays(day + 1), BookingStatus.APPROVED});
+        }
+        return periods;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BusyIntervalsTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void shouldMergeOverlappingAndTouchingIntervalsTest() {
+        BusyIntervals intervals = merge(0, 2, 1, 3, 3, 4, 6, 7, 6, 6);
+
+        assertThat(intervals.size()).isEqualTo(2);
+        assertThat(intervals.within(day(0), day(10))).containsExactly(
+                new BusyIntervals.Interval(day(0), day(4)),
+                new BusyIntervals.Interval(day(6), day(7)));
+    }
+
+    @Test
+    void shouldClipIntervalsToWindowTest() {
+        BusyIntervals intervals = merge(0, 2, 4, 6, 8, 10);
+
+        assertThat(intervals.within(day(1), day(9))).containsExactly(
+                new BusyIntervals.Interval(day(1), day(2)),
+                new BusyIntervals.Interval(day(4), day(6)),
+                new BusyIntervals.Interval(day(8), day(9)));
+        assertThat(intervals.within(day(2), day(4))).isEmpty();
+        assertThat(intervals.within(day(10), day(12))).isEmpty();
+    }
+
+    @Test
+    void shouldKeepMicrosecondsTest() {
+        LocalDateTime start = DAY.plusNanos(123_456_000);
+
+        assertThat(BusyIntervals.toDateTime(BusyIntervals.toMicros(start))).isEqualTo(start);
+        assertThat(BusyIntervals.toDateTime(BusyIntervals.toMicros(start.minusYears(100))))
+                .isEqualTo(start.minusYears(100));
+    }
+
+    @Test
+    void shouldRejectUnsortedInputTest() {
+        assertThatThrownBy(() -> merge(4, 5, 0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(BusyIntervals.mergeSorted(new long[0], new long[0], 0)).isSameAs(BusyIntervals.EMPTY);
+    }
+
+    private static BusyIntervals merge(int... days) {
+        long[] starts = new long[days.length / 2];
+        long[] ends = new long[days.length / 2];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = BusyIntervals.toMicros(day(days[2 * i]));
+            ends[i] = BusyIntervals.toMicros(day(days[2 * i + 1]));
+        }
+        return BusyIntervals.mergeSorted(starts, ends, starts.length);
+    }
+
+    private static LocalDateTime day(int day) {
+        return DAY.plusDays(day);
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BookingAlreadyProcessedException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Интервал в час, чтобы планировщик не сработал сам во время теста
+@SpringBootTest(properties = {
+        "shareit.booking-expiry.enabled=true",
+        "shareit.booking-expiry.interval=PT1H",
+        "shareit.booking-expiry.batch-size=2"
+})
+@AutoConfigureTestDatabase
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingExpiryJobIntegrationTest {
+    private final BookingExpiryJob expiryJob;
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void shouldExpireStaleWaitingBookingsInBatchesTest() {
+        UserDto owner = userService.create(UserDto.builder().name("Владелец").email("expiry-owner@test.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Букер").email("expiry-booker@test.ru").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Перфоратор")
+                .description("С кейсом")
+                .available(true)
+                .build());
+        BookingDto first = book(item.getId(), booker.getId(), 10);
+        BookingDto second = book(item.getId(), booker.getId(), 8);
+        BookingDto third = book(item.getId(), booker.getId(), 6);
+        BookingDto approved = book(item.getId(), booker.getId(), 4);
+        bookingService.approve(owner.getId(), approved.getId(), true);
+        BookingDto future = book(item.getId(), booker.getId(), -4);
+        double expiredBefore = expired();
+
+        expiryJob.expireStale();
+
+        assertThat(bookingService.getById(owner.getId(), first.getId()).getStatus()).isEqualTo(BookingStatus.EXPIRED);
+        assertThat(bookingService.getById(owner.getId(), second.getId()).getStatus()).isEqualTo(BookingStatus.EXPIRED);
+        assertThat(bookingService.getById(owner.getId(), third.getId()).getStatus()).isEqualTo(BookingStatus.EXPIRED);
+        assertThat(bookingService.getById(owner.getId(), approved.getId()).getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(bookingService.getById(owner.getId(), future.getId()).getStatus()).isEqualTo(BookingStatus.WAITING);
+        assertThat(bookingService.getAllByBooker(booker.getId(), BookingState.EXPIRED)).hasSize(3);
+        assertThat(expired() - expiredBefore).isEqualTo(3);
+        assertThatThrownBy(() -> bookingService.approve(owner.getId(), first.getId(), true))
+                .isInstanceOf(BookingAlreadyProcessedException.class);
+    }
+
+    @Test
+    void shouldLeaveBookingsStartedAfterCutoffTest() {
+        UserDto owner = userService.create(UserDto.builder().name("Владелец").email("grace-owner@test.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Букер").email("grace-booker@test.ru").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Шуруповёрт")
+                .description("Два аккумулятора")
+                .available(true)
+                .build());
+        BookingDto recent = book(item.getId(), booker.getId(), 1);
+
+        assertThat(expiryJob.expireBatch(LocalDateTime.now().minusDays(2))).isZero();
+        assertThat(bookingService.getById(owner.getId(), recent.getId()).getStatus()).isEqualTo(BookingStatus.WAITING);
+    }
+
+    private BookingDto book(Long itemId, Long bookerId, int daysAgo) {
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(itemId);
+        dto.setStart(LocalDateTime.now().minusDays(daysAgo));
+        dto.setEnd(LocalDateTime.now().minusDays(daysAgo).plusDays(1));
+        return bookingService.create(bookerId, dto);
+    }
+
+    private double expired() {
+        return meterRegistry.get("shareit.booking.expiry.expired").counter().count();
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.booking.partition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.PostgresTestDatabase;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingBulkResultDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.config.BookingPartitionProperties;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Схема из schema.sql на пустой базе PostgreSQL; первый прогон обслуживания запускается стартом приложения
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "shareit.booking-partitions.enabled=true"
+})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingPartitionMaintainerTest {
+    private static final String DATABASE = "shareit_partitions";
+
+    private final BookingPartitionMaintainer maintainer;
+    private final BookingPartitionProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemService itemService;
+    private final UserService userService;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        JdbcTemplate admin = new JdbcTemplate(new DriverManagerDataSource(PostgresTestDatabase.jdbcUrl("postgres"),
+                PostgresTestDatabase.USERNAME, PostgresTestDatabase.PASSWORD));
+        admin.execute("DROP DATABASE IF EXISTS " + DATABASE + " WITH (FORCE)");
+        admin.execute("CREATE DATABASE " + DATABASE);
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.jdbcUrl(DATABASE));
+        registry.add("spring.datasource.username", () -> PostgresTestDatabase.USERNAME);
+        registry.add("spring.datasource.password", () -> PostgresTestDatabase.PASSWORD);
+    }
+
+    @Test
+    void shouldPartitionFreshSchemaOnStartupTest() {
+        YearMonth current = YearMonth.now();
+
+        assertThat(relkind(BookingPartitions.TABLE)).isEqualTo("p");
+        assertThat(relkind(BookingPartitions.ARCHIVE)).isEqualTo("p");
+        assertThat(jdbcTemplate.queryForList("SELECT a.attname FROM pg_index i " +
+                "JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = ANY (i.indkey) " +
+                "WHERE i.indrelid = 'bookings'::regclass AND i.indisprimary", String.class))
+                .containsExactlyInAnyOrder("id", "start_date");
+        assertThat(partitionsOf(BookingPartitions.TABLE)).contains(
+                BookingPartitions.DEFAULT_PARTITION,
+                BookingPartitions.name(current.minusMonths(properties.getRetentionMonths())),
+                BookingPartitions.name(current),
+                BookingPartitions.name(current.plusMonths(properties.getMonthsAhead())));
+    }
+
+    @Test
+    void shouldLeaveSchemaUntouchedOnRestartTest() {
+        List<String> partitions = partitionsOf(BookingPartitions.TABLE);
+        List<String> archived = partitionsOf(BookingPartitions.ARCHIVE);
+        BookingPartitionMaintainer restarted = new BookingPartitionMaintainer(jdbcTemplate, transactionManager,
+                properties, new SimpleMeterRegistry(), event -> { });
+
+        restarted.maintain(YearMonth.now());
+        restarted.maintain(YearMonth.now());
+
+        assertThat(partitionsOf(BookingPartitions.TABLE)).containsExactlyInAnyOrderElementsOf(partitions);
+        assertThat(partitionsOf(BookingPartitions.ARCHIVE)).containsExactlyInAnyOrderElementsOf(archived);
+    }
+
+    @Test
+    void shouldArchiveMonthsLeavingHotWindowTest() {
+        YearMonth current = YearMonth.now();
+        YearMonth old = current.minusMonths(properties.getRetentionMonths() + 2);
+        // Прогон «три месяца назад» создаёт партиции, которые к текущему месяцу уже вышли из окна
+        maintainer.maintain(current.minusMonths(3));
+        UserDto owner = userService.create(UserDto.builder().name("Архивариус").email("archive@test.ru").build());
+        Long itemId = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Подшивка")
+                .description("Газеты за прошлые годы")
+                .available(true)
+                .build()).getId();
+        Long inPartition = insertBooking(itemId, owner.getId(), old.atDay(10).atStartOfDay());
+        Long inDefault = insertBooking(itemId, owner.getId(), old.minusYears(3).atDay(10).atStartOfDay());
+        assertThat(partitionsOf(BookingPartitions.TABLE)).contains(BookingPartitions.name(old));
+
+        maintainer.maintain(current);
+
+        assertThat(partitionsOf(BookingPartitions.TABLE)).doesNotContain(BookingPartitions.name(old));
+        assertThat(partitionsOf(BookingPartitions.ARCHIVE)).contains(BookingPartitions.name(old));
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM bookings WHERE id IN (?, ?)", Long.class,
+                inPartition, inDefault)).isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM " + BookingPartitions.ARCHIVE + " WHERE id IN (?, ?)",
+                Long.class, inPartition, inDefault)).containsExactlyInAnyOrder(inPartition, inDefault);
+    }
+
+    @Test
+    void shouldKeepVersionedAndConditionalUpdatesOnPartitionedTableTest() {
+        UserDto owner = userService.create(UserDto.builder().name("Владелец").email("pg-owner@test.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Букер").email("pg-booker@test.ru").build());
+        Long itemId = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Перфоратор")
+                .description("С тремя насадками")
+                .available(true)
+                .build()).getId();
+        // Первое попадает в месячную партицию, второе и третье — за горизонт, в default
+        Long near = book(booker.getId(), itemId, LocalDateTime.now().plusDays(1));
+        Long far = book(booker.getId(), itemId, LocalDateTime.now().plusYears(2));
+        Long overlapping = book(booker.getId(), itemId, LocalDateTime.now().plusYears(2));
+
+        assertThat(bookingService.approve(owner.getId(), near, true).getStatus()).isEqualTo(BookingStatus.APPROVED);
+        BookingBulkDecisionDto decisions = new BookingBulkDecisionDto();
+        decisions.setDecisions(List.of(new BookingBulkDecisionDto.Decision(far, true),
+                new BookingBulkDecisionDto.Decision(overlapping, true)));
+        assertThat(bookingService.decideAll(owner.getId(), decisions).getResults())
+                .extracting(BookingBulkResultDto.Result::getOutcome)
+                .containsExactly(BookingBulkResultDto.Outcome.APPROVED, BookingBulkResultDto.Outcome.CONFLICT);
+        assertThat(version(near)).isEqualTo(1);
+        assertThat(version(far)).isEqualTo(1);
+        assertThat(version(overlapping)).isZero();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Booking stale = transactionTemplate.execute(status -> bookingRepository.findById(overlapping).orElseThrow());
+        transactionTemplate.executeWithoutResult(status ->
+                bookingRepository.findById(overlapping).orElseThrow().setStatus(BookingStatus.CANCELED));
+        assertThat(version(overlapping)).isEqualTo(1);
+        stale.setStatus(BookingStatus.REJECTED);
+        assertThatThrownBy(() -> bookingRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    private Long book(Long bookerId, Long itemId, LocalDateTime start) {
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(itemId);
+        dto.setStart(start);
+        dto.setEnd(start.plusDays(1));
+        return bookingService.create(bookerId, dto).getId();
+    }
+
+    private Long insertBooking(Long itemId, Long bookerId, LocalDateTime start) {
+        return jdbcTemplate.queryForObject("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, 'APPROVED') RETURNING id", Long.class, start, start.plusDays(1), itemId, bookerId);
+    }
+
+    private long version(Long bookingId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM bookings WHERE id = ?", Long.class, bookingId);
+    }
+
+    private String relkind(String table) {
+        return jdbcTemplate.queryForObject("SELECT relkind::text FROM pg_class WHERE oid = ?::regclass",
+                String.class, table);
+    }
+
+    private List<String> partitionsOf(String table) {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = ?::regclass", String.class, table);
+    }
+}
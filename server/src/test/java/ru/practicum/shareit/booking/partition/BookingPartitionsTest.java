@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingPartitionsTest {
+
+    @Test
+    void shouldNameAndParseMonthlyPartitionsTest() {
+        YearMonth month = YearMonth.of(2026, 3);
+
+        assertThat(BookingPartitions.name(month)).isEqualTo("bookings_p2026_03");
+        assertThat(BookingPartitions.monthOf("bookings_p2026_03")).isEqualTo(month);
+        assertThat(BookingPartitions.monthOf(BookingPartitions.DEFAULT_PARTITION)).isNull();
+        assertThat(BookingPartitions.monthOf("bookings_pold")).isNull();
+    }
+
+    @Test
+    void shouldBoundPartitionByFirstDaysOfMonthsTest() {
+        assertThat(BookingPartitions.bounds(YearMonth.of(2026, 12)))
+                .isEqualTo("FROM ('2026-12-01 00:00:00') TO ('2027-01-01 00:00:00')");
+    }
+
+    @Test
+    void shouldKeepRetentionWindowAndMonthsAheadHotTest() {
+        YearMonth current = YearMonth.of(2026, 10);
+
+        assertThat(BookingPartitions.hotMonths(current, 2, 1)).containsExactly(
+                YearMonth.of(2026, 8), YearMonth.of(2026, 9), YearMonth.of(2026, 10), YearMonth.of(2026, 11));
+        assertThat(BookingPartitions.firstHotMonth(current, 24)).isEqualTo(YearMonth.of(2024, 10));
+    }
+}
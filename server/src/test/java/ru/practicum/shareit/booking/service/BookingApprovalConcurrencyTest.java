@@ -0,0 +1,316 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingBulkResultDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.exception.BookingAlreadyProcessedException;
+import ru.practicum.shareit.exception.ItemNotAvailableException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Без @Transactional: каждое решение коммитится отдельно, как в проде; созданные данные удаляются после теста
+@Slf4j
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingApprovalConcurrencyTest {
+    private static final int APPROVERS = 64;
+    private static final int BOOKINGS = 40;
+    private static final int ROUNDS = 20;
+    private static final int OVERLAPPING = 8;
+
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final List<Long> bookingIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private Long itemId;
+
+    @AfterEach
+    void cleanUp() {
+        bookingRepository.deleteAllById(bookingIds);
+        if (itemId != null) {
+            itemRepository.deleteById(itemId);
+        }
+        userRepository.deleteAllById(userIds);
+    }
+
+    @Test
+    void shouldLetExactlyOneDecisionWinPerBookingTest() throws InterruptedException {
+        UserDto owner = userService.create(UserDto.builder().name("Владелец").email("race-owner@test.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Букер").email("race-booker@test.ru").build());
+        userIds.addAll(List.of(owner.getId(), booker.getId()));
+        itemId = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Бетономешалка")
+                .description("Сто сорок литров")
+                .available(true)
+                .build()).getId();
+        for (int i = 0; i < BOOKINGS; i++) {
+            BookingCreateDto dto = new BookingCreateDto();
+            dto.setItemId(itemId);
+            dto.setStart(LocalDateTime.now().plusDays(2L * i + 1));
+            dto.setEnd(LocalDateTime.now().plusDays(2L * i + 2));
+            bookingIds.add(bookingService.create(booker.getId(), dto).getId());
+        }
+
+        ConcurrentMap<Long, BookingStatus> winners = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicInteger lost = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService approvers = Executors.newFixedThreadPool(APPROVERS);
+        for (int approver = 0; approver < APPROVERS; approver++) {
+            int seed = approver;
+            approvers.execute(() -> {
+                List<Long> order = new ArrayList<>(bookingIds);
+                Collections.shuffle(order, new Random(seed));
+                awaitQuietly(start);
+                for (Long bookingId : order) {
+                    boolean approve = (seed + bookingId) % 2 == 0;
+                    try {
+                        BookingDto decided = bookingService.approve(owner.getId(), bookingId, approve);
+                        if (winners.putIfAbsent(bookingId, decided.getStatus()) != null) {
+                            failures.add("Два победителя у бронирования " + bookingId);
+                        }
+                    } catch (BookingAlreadyProcessedException e) {
+                        lost.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failures.add(bookingId + ": " + e);
+                    }
+                }
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        approvers.shutdown();
+        assertThat(approvers.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        long elapsedNanos = System.nanoTime() - started;
+
+        int decisions = APPROVERS * BOOKINGS;
+        log.info("{} решений от {} потоков за {} мс: {} решений/с, выиграло {}, проиграло {}", decisions, APPROVERS,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(decisions / (elapsedNanos / 1_000_000_000.0)), winners.size(), lost.get());
+        assertThat(failures).isEmpty();
+        assertThat(winners).hasSize(BOOKINGS);
+        assertThat(lost.get()).isEqualTo(decisions - BOOKINGS);
+        for (Long bookingId : bookingIds) {
+            assertThat(bookingService.getById(owner.getId(), bookingId).getStatus())
+                    .isEqualTo(winners.get(bookingId));
+            assertThat(bookingRepository.findById(bookingId).orElseThrow().getVersion()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void shouldSettleSingleDecisionsRacingBulkCallTest() throws InterruptedException {
+        UserDto owner = userService.create(UserDto.builder().name("Владелец").email("bulk-owner@test.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Букер").email("bulk-booker@test.ru").build());
+        userIds.addAll(List.of(owner.getId(), booker.getId()));
+        itemId = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Виброплита")
+                .description("Девяносто килограммов")
+                .available(true)
+                .build()).getId();
+        for (int i = 0; i < BOOKINGS; i++) {
+            BookingCreateDto dto = new BookingCreateDto();
+            dto.setItemId(itemId);
+            dto.setStart(LocalDateTime.now().plusDays(2L * i + 1));
+            dto.setEnd(LocalDateTime.now().plusDays(2L * i + 2));
+            bookingIds.add(bookingService.create(booker.getId(), dto).getId());
+        }
+
+        // пакет подтверждает всё, одиночные решения по каждому бронированию отклоняют
+        ConcurrentMap<Long, BookingStatus> singleWinners = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicReference<BookingBulkResultDto> bulk = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService deciders = Executors.newFixedThreadPool(BOOKINGS + 1);
+        deciders.execute(() -> {
+            awaitQuietly(start);
+            try {
+                bulk.set(bookingService.decideAll(owner.getId(), new BookingBulkDecisionDto(bookingIds.stream()
+                        .map(id -> new BookingBulkDecisionDto.Decision(id, true))
+                        .toList())));
+            } catch (RuntimeException e) {
+                failures.add("пакет: " + e);
+            }
+        });
+        for (Long bookingId : bookingIds) {
+            deciders.execute(() -> {
+                awaitQuietly(start);
+                try {
+                    singleWinners.put(bookingId, bookingService.approve(owner.getId(), bookingId, false).getStatus());
+                } catch (BookingAlreadyProcessedException e) {
+                    // пакет успел раньше
+                } catch (RuntimeException e) {
+                    failures.add(bookingId + ": " + e);
+                }
+            });
+        }
+        start.countDown();
+        deciders.shutdown();
+        assertThat(deciders.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(failures).isEmpty();
+        Map<Long, BookingBulkResultDto.Outcome> bulkOutcomes = bulk.get().getResults().stream()
+                .collect(Collectors.toMap(BookingBulkResultDto.Result::getBookingId,
+                        BookingBulkResultDto.Result::getOutcome));
+        log.info("Пакет подтвердил {}, одиночные отклонили {}",
+                bulkOutcomes.values().stream().filter(BookingBulkResultDto.Outcome.APPROVED::equals).count(),
+                singleWinners.size());
+        for (Long bookingId : bookingIds) {
+            BookingStatus stored = bookingRepository.findById(bookingId).orElseThrow().getStatus();
+            if (singleWinners.containsKey(bookingId)) {
+                assertThat(bulkOutcomes.get(bookingId)).isEqualTo(BookingBulkResultDto.Outcome.ALREADY_PROCESSED);
+                assertThat(stored).isEqualTo(BookingStatus.REJECTED);
+            } else {
+                assertThat(bulkOutcomes.get(bookingId)).isEqualTo(BookingBulkResultDto.Outcome.APPROVED);
+                assertThat(stored).isEqualTo(BookingStatus.APPROVED);
+            }
+            assertThat(bookingRepository.findById(bookingId).orElseThrow().getVersion()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void shouldApproveAtMostOneOfOverlappingBookingsTest() throws InterruptedException {
+        UserDto owner = userService.create(UserDto.builder().name("Владелец").email("overlap-owner@test.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Букер").email("overlap-booker@test.ru").build());
+        userIds.addAll(List.of(owner.getId(), booker.getId()));
+        itemId = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Компрессор")
+                .description("Пятьдесят литров")
+                .available(true)
+                .build()).getId();
+
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService approvers = Executors.newFixedThreadPool(OVERLAPPING);
+        for (int round = 0; round < ROUNDS; round++) {
+            // в каждом раунде разные бронирования одной вещи на одни и те же даты подтверждаются одновременно
+            List<Long> overlapping = createBookings(booker.getId(), OVERLAPPING, 3L * round + 1);
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(OVERLAPPING);
+            for (Long bookingId : overlapping) {
+                approvers.execute(() -> {
+                    awaitQuietly(start);
+                    try {
+                        bookingService.approve(owner.getId(), bookingId, true);
+                    } catch (ItemNotAvailableException e) {
+                        // даты уже заняты другим бронированием
+                    } catch (RuntimeException e) {
+                        failures.add(bookingId + ": " + e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            start.countDown();
+            assertThat(done.await(1, TimeUnit.MINUTES)).isTrue();
+            assertThat(approvedAmong(overlapping)).isEqualTo(1);
+        }
+        approvers.shutdown();
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    void shouldConflictInBulkWhileOverlappingSingleApprovalIsUncommittedTest() throws Exception {
+        UserDto owner = userService.create(UserDto.builder().name("Владелец").email("overlap-bulk@test.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Букер").email("overlap-bulk-booker@test.ru")
+                .build());
+        userIds.addAll(List.of(owner.getId(), booker.getId()));
+        itemId = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Генератор")
+                .description("Пять киловатт")
+                .available(true)
+                .build()).getId();
+        List<Long> overlapping = createBookings(booker.getId(), 2, 1);
+
+        // одиночное подтверждение первого бронирования держит транзакцию открытой, пока пакет решает второе
+        CountDownLatch approvedInside = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService deciders = Executors.newFixedThreadPool(2);
+        Future<?> single = deciders.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> {
+                    bookingService.approve(owner.getId(), overlapping.get(0), true);
+                    approvedInside.countDown();
+                    awaitQuietly(commit);
+                }));
+        assertThat(approvedInside.await(1, TimeUnit.MINUTES)).isTrue();
+        Future<BookingBulkResultDto> bulk = deciders.submit(() -> bookingService.decideAll(owner.getId(),
+                new BookingBulkDecisionDto(List.of(new BookingBulkDecisionDto.Decision(overlapping.get(1), true)))));
+        Thread.sleep(200);
+        commit.countDown();
+        single.get(1, TimeUnit.MINUTES);
+        BookingBulkResultDto result = bulk.get(1, TimeUnit.MINUTES);
+        deciders.shutdown();
+
+        assertThat(result.getResults()).extracting(BookingBulkResultDto.Result::getOutcome)
+                .containsExactly(BookingBulkResultDto.Outcome.CONFLICT);
+        assertThat(approvedAmong(overlapping)).isEqualTo(1);
+    }
+
+    private List<Long> createBookings(Long bookerId, int count, long startDay) {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BookingCreateDto dto = new BookingCreateDto();
+            dto.setItemId(itemId);
+            dto.setStart(LocalDateTime.now().plusDays(startDay));
+            dto.setEnd(LocalDateTime.now().plusDays(startDay + 1));
+            created.add(bookingService.create(bookerId, dto).getId());
+        }
+        bookingIds.addAll(created);
+        return created;
+    }
+
+    private long approvedAmong(List<Long> ids) {
+        return bookingRepository.findAllById(ids).stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .count();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
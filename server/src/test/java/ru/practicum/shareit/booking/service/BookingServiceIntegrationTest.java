@@ -1,11 +1,15 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingBulkResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
@@ -13,25 +17,31 @@ import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.ItemNotAvailableException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.sql.SqlStatementCountExtension;
+import ru.practicum.shareit.sql.SqlStatementCounter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static ru.practicum.shareit.booking.model.BookingStatus.*;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
 @Transactional
+@ExtendWith(SqlStatementCountExtension.class)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class BookingServiceIntegrationTest {
 
     private final BookingService bookingService;
     private final UserService userService;
     private final ItemService itemService;
+    private final EntityManager entityManager;
 
     private UserDto owner;
     private UserDto booker;
@@ -126,6 +136,105 @@ class BookingServiceIntegrationTest {
                 .isInstanceOf(ItemNotAvailableException.class);
     }
 
+    @Test
+    void shouldThrowWhenItemAlreadyBookedForPeriodTest() {
+        initData();
+        BookingDto approved = createWaitingBooking();
+        bookingService.approve(owner.getId(), approved.getId(), true);
+
+        BookingCreateDto overlapping = new BookingCreateDto();
+        overlapping.setItemId(item.getId());
+        overlapping.setStart(LocalDateTime.now().plusHours(36));
+        overlapping.setEnd(LocalDateTime.now().plusDays(3));
+
+        assertThatThrownBy(() -> bookingService.create(stranger.getId(), overlapping))
+                .isInstanceOf(ItemNotAvailableException.class)
+                .hasMessage("Вещь уже забронирована на эти даты");
+    }
+
+    @Test
+    void shouldNotApproveSecondOverlappingBookingTest() {
+        initData();
+        BookingDto first = createWaitingBooking();
+        BookingDto second = createWaitingBooking();
+        bookingService.approve(owner.getId(), first.getId(), true);
+
+        assertThatThrownBy(() -> bookingService.approve(owner.getId(), second.getId(), true))
+                .isInstanceOf(ItemNotAvailableException.class);
+        assertThat(bookingService.approve(owner.getId(), second.getId(), false).getStatus()).isEqualTo(REJECTED);
+    }
+
+    @Test
+    void shouldReportOutcomePerBookingInBulkTest() {
+        initData();
+        ItemDto strangerItem = itemService.create(stranger.getId(), ItemDto.builder()
+                .name("Перфоратор")
+                .description("Чужой")
+                .available(true)
+                .build());
+        BookingDto first = createWaitingBooking();
+        BookingDto overlapping = createWaitingBooking();
+        BookingDto rejected = createWaitingBooking();
+        BookingDto processed = createWaitingBooking();
+        bookingService.approve(owner.getId(), processed.getId(), false);
+        BookingCreateDto foreignDto = new BookingCreateDto();
+        foreignDto.setItemId(strangerItem.getId());
+        foreignDto.setStart(LocalDateTime.now().plusDays(1));
+        foreignDto.setEnd(LocalDateTime.now().plusDays(2));
+        BookingDto foreign = bookingService.create(booker.getId(), foreignDto);
+
+        BookingBulkResultDto result = bookingService.decideAll(owner.getId(), new BookingBulkDecisionDto(List.of(
+                new BookingBulkDecisionDto.Decision(first.getId(), true),
+                new BookingBulkDecisionDto.Decision(overlapping.getId(), true),
+                new BookingBulkDecisionDto.Decision(rejected.getId(), false),
+                new BookingBulkDecisionDto.Decision(processed.getId(), true),
+                new BookingBulkDecisionDto.Decision(foreign.getId(), true),
+                new BookingBulkDecisionDto.Decision(first.getId(), false),
+                new BookingBulkDecisionDto.Decision(-1L, true))));
+
+        assertThat(result.getResults())
+                .extracting(BookingBulkResultDto.Result::getBookingId, BookingBulkResultDto.Result::getOutcome)
+                .containsExactly(
+                        tuple(first.getId(), BookingBulkResultDto.Outcome.APPROVED),
+                        tuple(overlapping.getId(), BookingBulkResultDto.Outcome.CONFLICT),
+                        tuple(rejected.getId(), BookingBulkResultDto.Outcome.REJECTED),
+                        tuple(processed.getId(), BookingBulkResultDto.Outcome.ALREADY_PROCESSED),
+                        tuple(foreign.getId(), BookingBulkResultDto.Outcome.FORBIDDEN),
+                        tuple(first.getId(), BookingBulkResultDto.Outcome.DUPLICATE),
+                        tuple(-1L, BookingBulkResultDto.Outcome.NOT_FOUND));
+        assertThat(bookingService.getById(owner.getId(), first.getId()).getStatus()).isEqualTo(APPROVED);
+        assertThat(bookingService.getById(owner.getId(), overlapping.getId()).getStatus()).isEqualTo(WAITING);
+        assertThat(bookingService.getById(owner.getId(), rejected.getId()).getStatus()).isEqualTo(REJECTED);
+        assertThat(bookingService.getById(stranger.getId(), foreign.getId()).getStatus()).isEqualTo(WAITING);
+    }
+
+    @Test
+    void shouldApplyBulkDecisionsWithinQueryBudgetTest(SqlStatementCounter sql) {
+        initData();
+        List<BookingBulkDecisionDto.Decision> decisions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            BookingCreateDto dto = new BookingCreateDto();
+            dto.setItemId(item.getId());
+            dto.setStart(LocalDateTime.now().plusDays(2L * i + 1));
+            dto.setEnd(LocalDateTime.now().plusDays(2L * i + 2));
+            decisions.add(new BookingBulkDecisionDto.Decision(bookingService.create(booker.getId(), dto).getId(), i % 2 == 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // пользователь, бронирования с вещами, блокировка вещей и ожидающих, подтверждённые периоды
+        // и по UPDATE на решение
+        sql.atMost(7, () -> {
+            bookingService.decideAll(owner.getId(), new BookingBulkDecisionDto(decisions));
+            entityManager.flush();
+        });
+
+        assertThat(bookingService.getAllByOwner(owner.getId(), BookingState.ALL))
+                .extracting(BookingDto::getStatus)
+                .containsOnly(APPROVED, REJECTED)
+                .hasSize(10);
+    }
+
     @Test
     void shouldGetBookingByIdForBookerOrOwnerTest() {
         initData();
@@ -138,6 +247,30 @@ class BookingServiceIntegrationTest {
         assertThat(foundByOwner.getId()).isEqualTo(booking.getId());
     }
 
+    @Test
+    void shouldChangeETagWhenBookingApprovedTest() {
+        initData();
+        BookingDto booking = createWaitingBooking();
+        entityManager.flush();
+        String waiting = bookingService.getETag(booker.getId(), booking.getId());
+
+        assertThat(bookingService.getETag(owner.getId(), booking.getId())).isEqualTo(waiting);
+
+        bookingService.approve(owner.getId(), booking.getId(), true);
+        entityManager.flush();
+
+        assertThat(bookingService.getETag(booker.getId(), booking.getId())).isNotEqualTo(waiting);
+    }
+
+    @Test
+    void shouldThrowWhenStrangerRequestsETagTest() {
+        initData();
+        BookingDto booking = createWaitingBooking();
+
+        assertThatThrownBy(() -> bookingService.getETag(stranger.getId(), booking.getId()))
+                .isInstanceOf(ForbiddenException.class);
+    }
+
     @Test
     void shouldThrowWhenStrangerTriesToGetBookingTest() {
         initData();
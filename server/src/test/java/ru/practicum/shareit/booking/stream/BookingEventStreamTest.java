@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxMessage;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingEventStreamTest {
+    private static final long OWNER_ID = 1L;
+    private static final long BOOKER_ID = 2L;
+    private static final long ITEM_ID = 10L;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BookingEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.of(Item.builder()
+                .id(ITEM_ID)
+                .owner(User.builder().id(OWNER_ID).build())
+                .build()));
+        stream = new BookingEventStream("local", itemRepository, objectMapper, 2, 1, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    void shouldPushBookingEventsToBookerAndOwnerTest() throws InterruptedException {
+        RecordingEmitter owner = new RecordingEmitter(null);
+        RecordingEmitter booker = new RecordingEmitter(null);
+        RecordingEmitter stranger = new RecordingEmitter(null);
+        stream.register(OWNER_ID, owner);
+        stream.register(BOOKER_ID, booker);
+        stream.register(3L, stranger);
+
+        stream.dispatch(message(1L, OutboxEventType.BOOKING_CREATED, BookingStatus.WAITING));
+        stream.dispatch(new OutboxMessage(2L, "item", ITEM_ID, OutboxEventType.ITEM_UPDATED, "{}",
+                LocalDateTime.now()));
+
+        awaitUntil(() -> owner.events.size() == 1 && booker.events.size() == 1);
+        assertThat(owner.events).containsExactly("BOOKING_CREATED:1");
+        assertThat(booker.events).containsExactly("BOOKING_CREATED:1");
+        assertThat(stranger.events).isEmpty();
+    }
+
+    @Test
+    void shouldDropOldestEventsWhenClientFallsBehindTest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        stream.register(BOOKER_ID, slow);
+
+        stream.dispatch(message(1L, OutboxEventType.BOOKING_CREATED, BookingStatus.WAITING));
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        for (long id = 2; id <= 6; id++) {
+            stream.dispatch(message(id, OutboxEventType.BOOKING_APPROVED, BookingStatus.APPROVED));
+        }
+        release.countDown();
+
+        awaitUntil(() -> slow.events.size() == 3);
+        assertThat(slow.events).containsExactly("BOOKING_CREATED:1", "BOOKING_APPROVED:5", "BOOKING_APPROVED:6");
+        assertThat(meterRegistry.get("shareit.booking.stream.dropped").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldCloseOldestConnectionOverLimitTest() throws InterruptedException {
+        RecordingEmitter first = new RecordingEmitter(null);
+        RecordingEmitter second = new RecordingEmitter(null);
+        stream.register(BOOKER_ID, first);
+        stream.register(BOOKER_ID, second);
+
+        stream.dispatch(message(1L, OutboxEventType.BOOKING_CREATED, BookingStatus.WAITING));
+
+        awaitUntil(() -> second.events.size() == 1);
+        assertThat(first.events).isEmpty();
+        assertThat(stream.connections()).isEqualTo(1);
+    }
+
+    // Отправка идёт в виртуальном потоке: ждём результата, но не дольше пяти секунд
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("событие не дошло за 5 секунд").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private OutboxMessage message(Long id, OutboxEventType type, BookingStatus status) {
+        try {
+            String payload = objectMapper.writeValueAsString(BookingEventDto.builder()
+                    .id(100L)
+                    .itemId(ITEM_ID)
+                    .bookerId(BOOKER_ID)
+                    .start(LocalDateTime.now().plusDays(1))
+                    .end(LocalDateTime.now().plusDays(2))
+                    .status(status)
+                    .build());
+            return new OutboxMessage(id, "booking", 100L, type, payload, LocalDateTime.now());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Вместо записи в ответ запоминает «имя:id» события; с release первая отправка ждёт, пока тест её отпустит
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            String text = builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .reduce("", String::concat);
+            String name = text.substring(text.indexOf("event:") + 6, text.indexOf('\n', text.indexOf("event:")));
+            String id = text.substring(text.indexOf("id:") + 3, text.indexOf('\n', text.indexOf("id:")));
+            events.add(name + ":" + id);
+        }
+    }
+}
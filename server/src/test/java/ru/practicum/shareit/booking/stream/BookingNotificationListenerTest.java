@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.PostgresTestDatabase;
+import ru.practicum.shareit.outbox.OutboxMessage;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Два слушателя изображают два инстанса сервера над одной базой
+class BookingNotificationListenerTest {
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final String url = PostgresTestDatabase.jdbcUrl("postgres");
+    private final List<BookingNotificationListener> listeners = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (BookingNotificationListener listener : listeners) {
+            listener.stop();
+        }
+    }
+
+    @Test
+    void shouldDeliverBookingEventsToEveryInstanceTest() throws Exception {
+        List<OutboxMessage> first = new CopyOnWriteArrayList<>();
+        List<OutboxMessage> second = new CopyOnWriteArrayList<>();
+        BookingNotificationListener firstListener = listen(first::add);
+        BookingNotificationListener secondListener = listen(second::add);
+        awaitUntil(() -> firstListener.isListening() && secondListener.isListening());
+
+        PgNotifyBookingSink sink = new PgNotifyBookingSink(new JdbcTemplate(new DriverManagerDataSource(url,
+                PostgresTestDatabase.USERNAME, PostgresTestDatabase.PASSWORD)), objectMapper);
+        OutboxMessage approved = new OutboxMessage(7L, "booking", 3L, OutboxEventType.BOOKING_APPROVED,
+                "{\"id\":3,\"itemId\":5,\"bookerId\":2,\"status\":\"APPROVED\"}", LocalDateTime.now());
+        sink.deliver(new OutboxMessage(8L, "item", 5L, OutboxEventType.ITEM_UPDATED, "{}", LocalDateTime.now()));
+        sink.deliver(approved);
+
+        awaitUntil(() -> first.size() == 1 && second.size() == 1);
+        assertThat(first).containsExactly(approved);
+        assertThat(second).containsExactly(approved);
+    }
+
+    private BookingNotificationListener listen(Consumer<OutboxMessage> dispatcher) {
+        BookingNotificationListener listener = new BookingNotificationListener(url, PostgresTestDatabase.USERNAME,
+                PostgresTestDatabase.PASSWORD, objectMapper, dispatcher);
+        listeners.add(listener);
+        listener.start();
+        return listener;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("не дождались за 10 секунд").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.stream;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.outbox.OutboxMessage;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.config.HeaderConstants.X_SHARER_USER_ID;
+
+// Настоящий порт и сжатие как в application.properties: поток не должен застревать в буферизующих фильтрах
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.compression.enabled=true",
+        "server.compression.mime-types=application/json,application/x-jackson-smile",
+        "server.compression.min-response-size=2KB",
+        "shareit.booking-stream.heartbeat=PT0.2S"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingStreamHttpTest {
+    private final UserService userService;
+    private final BookingEventStream bookingEventStream;
+
+    @LocalServerPort
+    private int port;
+    private Long userId;
+
+    @AfterEach
+    void cleanUp() {
+        if (userId != null) {
+            userService.delete(userId);
+        }
+    }
+
+    @Test
+    void shouldStreamHeartbeatsAndEventsWithCompressionOnTest() throws Exception {
+        userId = userService.create(UserDto.builder().name("Слушатель").email("stream@test.ru").build()).getId();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/stream"))
+                .header(X_SHARER_USER_ID, String.valueOf(userId))
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .header("Accept-Encoding", "gzip")
+                .build();
+
+        HttpResponse<InputStream> response = HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type ->
+                assertThat(type).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+        try (BufferedReader body = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            assertThat(readLine(body)).startsWith(":");
+
+            bookingEventStream.dispatch(new OutboxMessage(11L, "booking", 3L, OutboxEventType.BOOKING_CREATED,
+                    "{\"id\":3,\"itemId\":-1,\"bookerId\":" + userId + ",\"status\":\"WAITING\"}",
+                    LocalDateTime.now()));
+            String line = readLine(body);
+            while (line.isEmpty() || line.startsWith(":")) {
+                line = readLine(body);
+            }
+            assertThat(line).isEqualTo("id:11");
+            assertThat(readLine(body)).isEqualTo("event:BOOKING_CREATED");
+            assertThat(readLine(body)).startsWith("data:{\"id\":3");
+        }
+    }
+
+    // Чтение с таймаутом: если поток буферизуется, тест падает, а не висит до таймаута emitter
+    private static String readLine(BufferedReader body) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return body.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).get(5, TimeUnit.SECONDS);
+    }
+}
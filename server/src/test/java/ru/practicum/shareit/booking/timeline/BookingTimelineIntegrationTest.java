@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.timeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.partition.BookingsArchivedEvent;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Без @Transactional: таймлайн обновляется только после коммита подтверждения
+@SpringBootTest(properties = "shareit.booking-timeline.enabled=true")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingTimelineIntegrationTest {
+    private final BookingTimeline timeline;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void shouldAnswerLastAndNextFromMemoryAfterCommitTest() {
+        UserDto owner = userService.create(UserDto.builder().name("Владелец").email("timeline-owner@test.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Букер").email("timeline-booker@test.ru").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Рубанок")
+                .description("Электрический")
+                .available(true)
+                .build());
+
+        BookingDto past = book(item.getId(), booker.getId(), LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(5));
+        BookingDto future = book(item.getId(), booker.getId(), LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(10));
+        BookingDto rejected = book(item.getId(), booker.getId(), LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        bookingService.approve(owner.getId(), past.getId(), true);
+        bookingService.approve(owner.getId(), future.getId(), true);
+        bookingService.approve(owner.getId(), rejected.getId(), false);
+
+        assertThat(timeline.isReady()).isTrue();
+        assertThat(timeline.last(item.getId(), LocalDateTime.now()))
+                .isEqualTo(new BookingTimeline.Entry(past.getId(), booker.getId()));
+
+        ItemWithBookingsDto details = itemService.findByIdWithDetails(owner.getId(), item.getId());
+
+        assertThat(details.getLastBooking().getId()).isEqualTo(past.getId());
+        assertThat(details.getNextBooking().getId()).isEqualTo(future.getId());
+        assertThat(meterRegistry.get("shareit.booking.timeline.bookings").gauge().value()).isGreaterThanOrEqualTo(2);
+        assertThat(meterRegistry.get("shareit.booking.timeline.memory").gauge().value()).isPositive();
+    }
+
+    @Test
+    void shouldForgetArchivedBookingsAndDeletedItemsTest() {
+        UserDto owner = userService.create(UserDto.builder().name("Владелец").email("archive-owner@test.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Букер").email("archive-booker@test.ru").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Лобзик")
+                .description("С маятниковым ходом")
+                .available(true)
+                .build());
+        BookingDto old = book(item.getId(), booker.getId(), LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(9));
+        BookingDto recent = book(item.getId(), booker.getId(), LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2));
+        bookingService.approve(owner.getId(), old.getId(), true);
+        bookingService.approve(owner.getId(), recent.getId(), true);
+
+        eventPublisher.publishEvent(new BookingsArchivedEvent(LocalDateTime.now().minusDays(5)));
+        assertThat(timeline.last(item.getId(), LocalDateTime.now().minusDays(6))).isNull();
+        assertThat(timeline.last(item.getId(), LocalDateTime.now()))
+                .isEqualTo(new BookingTimeline.Entry(recent.getId(), booker.getId()));
+
+        eventPublisher.publishEvent(new BookingsArchivedEvent(LocalDateTime.now()));
+        assertThat(timeline.last(item.getId(), LocalDateTime.now())).isNull();
+
+        bookingService.approve(owner.getId(), book(item.getId(), booker.getId(), LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2)).getId(), true);
+        assertThat(timeline.next(item.getId(), LocalDateTime.now())).isNotNull();
+        timeline.onItemDeleted(item.getId());
+        assertThat(timeline.next(item.getId(), LocalDateTime.now())).isNull();
+    }
+
+    private BookingDto book(Long itemId, Long bookerId, LocalDateTime start, LocalDateTime end) {
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(itemId);
+        dto.setStart(start);
+        dto.setEnd(end);
+        return bookingService.create(bookerId, dto);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking.timeline;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemTimelineTest {
+
+    @Test
+    void shouldFindLastAndNextAroundNowTest() {
+        ItemTimeline timeline = new ItemTimeline();
+        timeline.append(1, 10, 0, 10);
+        timeline.append(2, 20, 20, 30);
+        timeline.append(3, 30, 40, 50);
+        timeline.append(4, 40, 60, 70);
+
+        assertThat(timeline.last(45)).isEqualTo(new BookingTimeline.Entry(2, 20));
+        assertThat(timeline.next(45)).isEqualTo(new BookingTimeline.Entry(4, 40));
+        assertThat(timeline.last(0)).isNull();
+        assertThat(timeline.next(60)).isNull();
+        assertThat(timeline.last(30)).isEqualTo(new BookingTimeline.Entry(1, 10));
+    }
+
+    @Test
+    void shouldPickLatestEndWhenLegacyBookingsOverlapTest() {
+        ItemTimeline timeline = new ItemTimeline();
+        timeline.append(1, 10, 0, 90);
+        timeline.append(2, 20, 10, 20);
+        timeline.append(3, 30, 30, 40);
+
+        assertThat(timeline.last(100)).isEqualTo(new BookingTimeline.Entry(1, 10));
+        assertThat(timeline.last(50)).isEqualTo(new BookingTimeline.Entry(3, 30));
+    }
+
+    @Test
+    void shouldInsertInStartOrderAndIgnoreDuplicatesTest() {
+        ItemTimeline timeline = new ItemTimeline();
+        for (int i = 10; i >= 1; i--) {
+            assertThat(timeline.add(i, i * 10, i * 100L, i * 100L + 50)).isTrue();
+        }
+        assertThat(timeline.add(5, 50, 500, 550)).isFalse();
+
+        assertThat(timeline.size()).isEqualTo(10);
+        assertThat(timeline.next(520)).isEqualTo(new BookingTimeline.Entry(6, 60));
+        assertThat(timeline.last(520)).isEqualTo(new BookingTimeline.Entry(4, 40));
+        assertThat(timeline.last(560)).isEqualTo(new BookingTimeline.Entry(5, 50));
+        assertThat(timeline.footprintBytes()).isGreaterThan(10L * 5 * Long.BYTES);
+    }
+
+    @Test
+    void shouldIgnoreDuplicatesOfLoadedBookingsTest() {
+        ItemTimeline timeline = new ItemTimeline();
+        timeline.append(7, 10, 0, 10);
+        timeline.append(3, 20, 20, 30);
+
+        assertThat(timeline.add(3, 20, 20, 30)).isFalse();
+        assertThat(timeline.add(5, 30, 40, 50)).isTrue();
+        assertThat(timeline.add(7, 10, 0, 10)).isFalse();
+        assertThat(timeline.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDropBookingsStartingBeforeArchiveBoundaryTest() {
+        ItemTimeline timeline = new ItemTimeline();
+        timeline.append(1, 10, 0, 90);
+        timeline.append(2, 20, 10, 20);
+        timeline.append(3, 30, 30, 40);
+
+        assertThat(timeline.removeStartingBefore(5)).isEqualTo(2);
+        assertThat(timeline.last(100)).isEqualTo(new BookingTimeline.Entry(3, 30));
+        assertThat(timeline.add(2, 20, 10, 20)).isFalse();
+        assertThat(timeline.add(1, 10, 0, 90)).isTrue();
+        assertThat(timeline.removeStartingBefore(50)).isZero();
+    }
+}
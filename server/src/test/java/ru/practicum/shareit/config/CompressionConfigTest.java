@@ -0,0 +1,51 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressionConfigTest {
+
+    private final CompressionConfig.ContentLengthFilter filter = new CompressionConfig.ContentLengthFilter(
+            List.of(MimeTypeUtils.parseMimeType(MediaType.APPLICATION_JSON_VALUE)));
+
+    @Test
+    void shouldBufferCompressibleBodyAndSetContentLengthTest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> writtenBeforeReturn = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write("[{\"id\":1}]".getBytes());
+            res.getOutputStream().flush();
+            writtenBeforeReturn.set(response.getContentAsString());
+        });
+
+        assertThat(writtenBeforeReturn.get()).isEmpty();
+        assertThat(response.getContentAsString()).isEqualTo("[{\"id\":1}]");
+        assertThat(response.getContentLength()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldPassThroughOtherTypesAsTheyAreWrittenTest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> writtenBeforeReturn = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/bookings/stream"), response, (req, res) -> {
+            res.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+            res.getOutputStream().write(":\n\n".getBytes());
+            res.flushBuffer();
+            writtenBeforeReturn.set(response.getContentAsString());
+        });
+
+        assertThat(writtenBeforeReturn.get()).isEqualTo(":\n\n");
+        assertThat(response.getHeader("Content-Length")).isNull();
+    }
+}
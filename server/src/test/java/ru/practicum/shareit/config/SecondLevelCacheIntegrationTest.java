@@ -0,0 +1,96 @@
+package ru.practicum.shareit.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class SecondLevelCacheIntegrationTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemRepository itemRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldServeRepeatedUserReadsFromCacheTest() {
+        UserDto user = createUser();
+        entityManagerFactory.getCache().evict(User.class);
+
+        userService.getById(user.getId());
+        userService.getById(user.getId());
+
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(User.class.getName()).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSeeUpdatedUserAfterWriteTest() {
+        UserDto user = createUser();
+        userService.getById(user.getId());
+
+        UserDto patch = new UserDto();
+        patch.setName("Обновлённое имя");
+        userService.update(user.getId(), patch);
+
+        assertThat(userService.getById(user.getId()).getName()).isEqualTo("Обновлённое имя");
+    }
+
+    @Test
+    void shouldCacheOwnerItemsQueryAndInvalidateItOnNewItemTest() {
+        UserDto owner = createUser();
+        itemService.create(owner.getId(), item("Дрель"));
+
+        itemRepository.findByOwnerId(owner.getId());
+        itemRepository.findByOwnerId(owner.getId());
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        itemService.create(owner.getId(), item("Перфоратор"));
+
+        assertThat(itemRepository.findByOwnerId(owner.getId()))
+                .extracting(Item::getName)
+                .containsExactlyInAnyOrder("Дрель", "Перфоратор");
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    private UserDto createUser() {
+        UserDto dto = new UserDto();
+        dto.setName("Кэш");
+        dto.setEmail(UUID.randomUUID() + "@cache.ru");
+        return userService.create(dto);
+    }
+
+    private static ItemDto item(String name) {
+        ItemDto dto = new ItemDto();
+        dto.setName(name);
+        dto.setDescription(name + " для теста кэша");
+        dto.setAvailable(true);
+        return dto;
+    }
+}
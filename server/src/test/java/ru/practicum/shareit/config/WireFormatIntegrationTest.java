@@ -0,0 +1,67 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class WireFormatIntegrationTest {
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    @Test
+    void shouldAcceptSmileRequestAndAnswerInSmileWhenPreferredTest() throws Exception {
+        byte[] body = smileMapper.writeValueAsBytes(Map.of("name", "Smile", "email", "smile@mail.ru"));
+
+        MvcResult result = mockMvc.perform(post("/users")
+                        .contentType(SMILE)
+                        .accept(SMILE, MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(MediaType.valueOf(result.getResponse().getContentType()).isCompatibleWith(SMILE)).isTrue();
+        UserDto created = smileMapper.readValue(result.getResponse().getContentAsByteArray(), UserDto.class);
+        assertThat(created.getEmail()).isEqualTo("smile@mail.ru");
+    }
+
+    @Test
+    void shouldKeepJsonForClientsThatDoNotAskForSmileTest() throws Exception {
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Json\",\"email\":\"json@mail.ru\"}"))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/users").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        JsonNode users = new ObjectMapper().readTree(result.getResponse().getContentAsString());
+        assertThat(users.get(0).get("email").asText()).isEqualTo("json@mail.ru");
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "shareit.datasource.replica.enabled=true",
+        "shareit.datasource.replica.url=${spring.datasource.url}",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class DataSourceRoutingIntegrationTest {
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    @AfterEach
+    void unbindUser() {
+        ReadYourWritesGuard.unbindUser();
+    }
+
+    @Test
+    void shouldRouteServiceTransactionsByReadOnlyFlagAndRecentWritesTest() {
+        UserDto dto = new UserDto();
+        dto.setName("Реплика");
+        dto.setEmail("replica@mail.ru");
+        ReadYourWritesGuard.bindUser(42L);
+        UserDto user = userService.create(dto);
+        double writes = routed("write");
+
+        userService.getById(user.getId());
+        assertThat(routed("read-your-writes")).isEqualTo(1);
+
+        ReadYourWritesGuard.bindUser(43L);
+        userService.getById(user.getId());
+        assertThat(routed("read")).isEqualTo(1);
+        assertThat(writes).isGreaterThanOrEqualTo(1);
+    }
+
+    private double routed(String reason) {
+        return meterRegistry.get("shareit.datasource.routing").tag("reason", reason).counter().count();
+    }
+}
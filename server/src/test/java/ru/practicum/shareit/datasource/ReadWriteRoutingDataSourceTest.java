@@ -0,0 +1,89 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReadWriteRoutingDataSourceTest {
+    private final AtomicLong now = new AtomicLong();
+    private final ReadYourWritesGuard guard = new ReadYourWritesGuard(Duration.ofSeconds(5), now::get);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(
+            mock(DataSource.class), mock(DataSource.class), guard, meterRegistry);
+
+    @BeforeEach
+    void startSynchronization() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clear() {
+        TransactionSynchronizationManager.clear();
+        ReadYourWritesGuard.unbindUser();
+    }
+
+    @Test
+    void shouldUsePrimaryOutsideTransactionTest() {
+        assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Pool.PRIMARY);
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionToReplicaTest() {
+        ReadYourWritesGuard.bindUser(7L);
+
+        assertThat(route(true)).isEqualTo(ReadWriteRoutingDataSource.Pool.REPLICA);
+        assertThat(meterRegistry.get("shareit.datasource.routing").tag("reason", "read").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepWriterOnPrimaryUntilWindowPassesTest() {
+        ReadYourWritesGuard.bindUser(7L);
+        assertThat(route(false)).isEqualTo(ReadWriteRoutingDataSource.Pool.PRIMARY);
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+
+        assertThat(route(true)).isEqualTo(ReadWriteRoutingDataSource.Pool.PRIMARY);
+
+        ReadYourWritesGuard.bindUser(8L);
+        assertThat(route(true)).isEqualTo(ReadWriteRoutingDataSource.Pool.REPLICA);
+
+        ReadYourWritesGuard.bindUser(7L);
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(route(true)).isEqualTo(ReadWriteRoutingDataSource.Pool.REPLICA);
+    }
+
+    @Test
+    void shouldNotOpenWindowWhenWriteRolledBackTest() {
+        ReadYourWritesGuard.bindUser(7L);
+        route(false);
+
+        assertThat(route(true)).isEqualTo(ReadWriteRoutingDataSource.Pool.REPLICA);
+    }
+
+    @Test
+    void shouldForgetWritersAfterWindowTest() {
+        guard.recordWrite(1L);
+        guard.recordWrite(2L);
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        guard.recordWrite(3L);
+
+        assertThat(guard.trackedUsers()).isEqualTo(1);
+    }
+
+    private ReadWriteRoutingDataSource.Pool route(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        return (ReadWriteRoutingDataSource.Pool) dataSource.determineCurrentLookupKey();
+    }
+}
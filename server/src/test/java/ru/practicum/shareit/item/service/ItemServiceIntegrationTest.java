@@ -1,23 +1,31 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.config.ETags;
 import ru.practicum.shareit.exception.CommentNotAllowedException;
 import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.item.dto.BusyIntervalDto;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.sql.SqlStatementCountExtension;
+import ru.practicum.shareit.sql.SqlStatementCounter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -27,11 +35,13 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 @AutoConfigureTestDatabase
 @Transactional
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
+@ExtendWith(SqlStatementCountExtension.class)
 class ItemServiceIntegrationTest {
 
     private final ItemService itemService;
     private final UserService userService;
     private final BookingService bookingService;
+    private final EntityManager entityManager;
 
     private UserDto owner;
     private UserDto booker;
@@ -102,6 +112,26 @@ class ItemServiceIntegrationTest {
                 .hasMessage("Только владелец может редактировать вещь");
     }
 
+    @Test
+    void shouldChangeDetailsETagOnlyWhenItemChangesTest() {
+        initUsers();
+
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Мощная")
+                .available(true)
+                .build());
+        entityManager.flush();
+        String etag = ETags.of(itemService.findByIdWithDetails(stranger.getId(), item.getId()));
+
+        assertThat(ETags.of(itemService.findByIdWithDetails(stranger.getId(), item.getId()))).isEqualTo(etag);
+
+        itemService.update(owner.getId(), item.getId(), ItemDto.builder().name("Перфоратор").build());
+        entityManager.flush();
+
+        assertThat(ETags.of(itemService.findByIdWithDetails(stranger.getId(), item.getId()))).isNotEqualTo(etag);
+    }
+
     @Test
     void shouldSearchItemsByNameOrDescriptionIgnoreCaseTest() {
         initUsers();
@@ -124,6 +154,93 @@ class ItemServiceIntegrationTest {
         assertThat(itemService.search(null)).isEmpty();
     }
 
+    @Test
+    void shouldSearchOnlyItemsFreeInWindowTest() {
+        initUsers();
+        LocalDateTime from = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime to = from.plusDays(3);
+
+        ItemDto booked = itemService.create(owner.getId(), ItemDto.builder().name("Палатка двухместная").description("Лёгкая").available(true).build());
+        ItemDto bookedLater = itemService.create(owner.getId(), ItemDto.builder().name("Палатка трёхместная").description("Тяжёлая").available(true).build());
+        ItemDto requested = itemService.create(owner.getId(), ItemDto.builder().name("Палатка-шатёр").description("Для кемпинга").available(true).build());
+
+        BookingCreateDto overlap = new BookingCreateDto();
+        overlap.setItemId(booked.getId());
+        overlap.setStart(from.minusDays(1));
+        overlap.setEnd(from.plusDays(1));
+        bookingService.approve(owner.getId(), bookingService.create(booker.getId(), overlap).getId(), true);
+
+        BookingCreateDto adjacent = new BookingCreateDto();
+        adjacent.setItemId(bookedLater.getId());
+        adjacent.setStart(to);
+        adjacent.setEnd(to.plusDays(2));
+        bookingService.approve(owner.getId(), bookingService.create(booker.getId(), adjacent).getId(), true);
+
+        BookingCreateDto waiting = new BookingCreateDto();
+        waiting.setItemId(requested.getId());
+        waiting.setStart(from);
+        waiting.setEnd(to);
+        bookingService.create(booker.getId(), waiting);
+
+        List<ItemDto> result = itemService.searchAvailable("палатка", from, to);
+
+        assertThat(result).extracting(ItemDto::getId).containsExactlyInAnyOrder(bookedLater.getId(), requested.getId());
+        assertThat(itemService.searchAvailable("палатка", to, from)).isEmpty();
+    }
+
+    @Test
+    void shouldReturnMergedBusyIntervalsForAnyUserTest() {
+        initUsers();
+        LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime to = from.plusDays(30);
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder().name("Байдарка").description("Двухместная").available(true).build());
+
+        BookingCreateDto first = new BookingCreateDto();
+        first.setItemId(item.getId());
+        first.setStart(from.minusDays(2));
+        first.setEnd(from.plusDays(3));
+        bookingService.approve(owner.getId(), bookingService.create(booker.getId(), first).getId(), true);
+        BookingCreateDto second = new BookingCreateDto();
+        second.setItemId(item.getId());
+        second.setStart(from.plusDays(3));
+        second.setEnd(from.plusDays(5));
+        bookingService.approve(owner.getId(), bookingService.create(booker.getId(), second).getId(), true);
+        BookingCreateDto waiting = new BookingCreateDto();
+        waiting.setItemId(item.getId());
+        waiting.setStart(from.plusDays(10));
+        waiting.setEnd(from.plusDays(12));
+        bookingService.create(stranger.getId(), waiting);
+
+        ItemCalendarDto calendar = itemService.getCalendar(stranger.getId(), item.getId(), from, to, false);
+
+        assertThat(calendar.getBusy()).containsExactly(new BusyIntervalDto(from, from.plusDays(5)));
+        assertThat(itemService.getCalendar(stranger.getId(), item.getId(), from, to, true).getBusy())
+                .extracting(BusyIntervalDto::getStart)
+                .containsExactly(from, from.plusDays(10));
+    }
+
+    @Test
+    void shouldRefreshCalendarAfterBookingChangeTest() {
+        initUsers();
+        LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime to = from.plusDays(30);
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder().name("Сапборд").description("Надувной").available(true).build());
+        assertThat(itemService.getCalendar(booker.getId(), item.getId(), from, to, false).getBusy()).isEmpty();
+
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(item.getId());
+        dto.setStart(from.plusDays(1));
+        dto.setEnd(from.plusDays(2));
+        var booking = bookingService.create(booker.getId(), dto);
+        assertThat(itemService.getCalendar(booker.getId(), item.getId(), from, to, true).getBusy()).hasSize(1);
+        assertThat(itemService.getCalendar(booker.getId(), item.getId(), from, to, false).getBusy()).isEmpty();
+
+        bookingService.approve(owner.getId(), booking.getId(), true);
+
+        assertThat(itemService.getCalendar(booker.getId(), item.getId(), from, to, false).getBusy())
+                .containsExactly(new BusyIntervalDto(from.plusDays(1), from.plusDays(2)));
+    }
+
     @Test
     void shouldAddCommentOnlyAfterCompletedApprovedBookingTest() {
         initUsers();
@@ -218,4 +335,25 @@ class ItemServiceIntegrationTest {
         assertThat(items).extracting(ItemWithBookingsDto::getName)
                 .containsExactlyInAnyOrder("Вещь1", "Вещь2");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldLoadOwnerItemsWithinQueryBudgetTest(SqlStatementCounter sql) {
+        initUsers();
+        int itemCount = 3;
+        for (int i = 0; i < itemCount; i++) {
+            itemService.create(owner.getId(), ItemDto.builder()
+                    .name("Вещь" + i)
+                    .description("Описание " + i)
+                    .available(true)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // пользователь, вещи владельца и по три запроса на вещь: последнее, следующее бронирование и комментарии
+        List<ItemWithBookingsDto> items = sql.atMost(2 + 3 * itemCount,
+                () -> itemService.findByOwnerId(owner.getId()));
+
+        assertThat(items).hasSize(itemCount);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ServiceTimingIntegrationTest {
+    private final UserService userService;
+    private final BookingService bookingService;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void shouldTimeSuccessfulCallWithPercentilesTest() {
+        UserDto user = userService.create(UserDto.builder().name("Таймер").email("timer@test.ru").build());
+        Timer create = timer("UserService", "create", "none", "success", "none");
+        long created = create.count();
+
+        userService.create(UserDto.builder().name("Таймер 2").email("timer2@test.ru").build());
+        bookingService.getAllByOwner(user.getId(), BookingState.REJECTED);
+
+        assertThat(create.count()).isEqualTo(created + 1);
+        assertThat(create.takeSnapshot().percentileValues()).hasSize(3);
+        assertThat(timer("BookingService", "getAllByOwner", "REJECTED", "success", "none").count()).isPositive();
+    }
+
+    @Test
+    void shouldTagFailedCallWithExceptionAndStateTest() {
+        assertThatThrownBy(() -> bookingService.getAllByBooker(-1L, BookingState.PAST))
+                .isInstanceOf(NotFoundException.class);
+        Timer failed = timer("BookingService", "getAllByBooker", "PAST", "error", "NotFoundException");
+        long failures = failed.count();
+
+        assertThatThrownBy(() -> bookingService.getAllByBooker(-1L, BookingState.PAST))
+                .isInstanceOf(NotFoundException.class);
+
+        assertThat(failed.count()).isEqualTo(failures + 1);
+    }
+
+    private Timer timer(String service, String method, String state, String outcome, String exception) {
+        return meterRegistry.get(ServiceTimingInterceptor.METRIC)
+                .tag("service", service)
+                .tag("method", method)
+                .tag("state", state)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .timer();
+    }
+}
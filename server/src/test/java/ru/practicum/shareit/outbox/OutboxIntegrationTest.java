@@ -0,0 +1,253 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.dto.CommentCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+import ru.practicum.shareit.outbox.storage.OutboxEventRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Без @Transactional: события пишутся перед коммитом; созданные данные удаляются после теста.
+// Интервал в час, чтобы relay по расписанию не забрал события раньше теста
+@SpringBootTest(properties = {
+        "shareit.outbox.enabled=true",
+        "shareit.outbox.interval=PT1H"
+})
+@AutoConfigureTestDatabase
+@Import({RecordingOutboxSink.class, OutboxIntegrationTest.LeaseCheckingOutboxSink.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class OutboxIntegrationTest {
+    private final OutboxRelay relay;
+    private final RecordingOutboxSink sink;
+    private final LeaseCheckingOutboxSink leaseCheckingSink;
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll(events("item", itemIds));
+        outboxEventRepository.deleteAll(events("booking", bookingIds));
+        itemIds.forEach(itemId -> commentRepository.deleteAll(commentRepository.findByItemId(itemId)));
+        bookingRepository.deleteAllById(bookingIds);
+        itemRepository.deleteAllById(itemIds);
+        userRepository.deleteAllById(userIds);
+    }
+
+    @Test
+    void shouldWriteEventsWithChangesAndDeliverThemTest() throws Exception {
+        UserDto owner = user("outbox-owner@test.ru");
+        UserDto booker = user("outbox-booker@test.ru");
+        ItemDto item = item(owner.getId(), "Лобзик");
+        itemService.update(owner.getId(), item.getId(), ItemDto.builder().description("С пилками").build());
+        ItemDto removed = item(owner.getId(), "Сломанный лобзик");
+        itemService.delete(owner.getId(), removed.getId());
+        BookingDto booking = book(booker.getId(), item.getId());
+        bookingService.approve(owner.getId(), booking.getId(), true);
+        CommentCreateDto comment = new CommentCreateDto();
+        comment.setText("Пилит ровно");
+        itemService.addComment(booker.getId(), item.getId(), comment);
+
+        assertThat(events("item", itemIds)).extracting(OutboxEvent::getEventType)
+                .containsExactly(OutboxEventType.ITEM_CREATED, OutboxEventType.ITEM_UPDATED,
+                        OutboxEventType.ITEM_CREATED, OutboxEventType.ITEM_DELETED, OutboxEventType.COMMENT_ADDED);
+        assertThat(events("booking", bookingIds)).extracting(OutboxEvent::getEventType)
+                .containsExactly(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_APPROVED);
+
+        drain(LocalDateTime.now());
+
+        assertThat(sink.messagesFor("item", item.getId()))
+                .extracting(OutboxMessage::eventType)
+                .containsExactly(OutboxEventType.ITEM_CREATED, OutboxEventType.ITEM_UPDATED,
+                        OutboxEventType.COMMENT_ADDED);
+        List<OutboxMessage> bookingMessages = sink.messagesFor("booking", booking.getId());
+        assertThat(bookingMessages).extracting(OutboxMessage::eventType)
+                .containsExactly(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_APPROVED);
+        JsonNode approved = objectMapper.readTree(objectMapper.writeValueAsString(bookingMessages.get(1)));
+        assertThat(approved.get("payload").get("status").asText()).isEqualTo("APPROVED");
+        assertThat(approved.get("payload").get("itemId").asLong()).isEqualTo(item.getId());
+        assertThat(events("item", itemIds)).isEmpty();
+        assertThat(events("booking", bookingIds)).isEmpty();
+    }
+
+    @Test
+    void shouldNotWriteEventsOfRolledBackTransactionTest() {
+        UserDto owner = user("outbox-rollback@test.ru");
+        Long[] itemId = new Long[1];
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemId[0] = itemService.create(owner.getId(), ItemDto.builder()
+                    .name("Рулетка")
+                    .description("Пять метров")
+                    .available(true)
+                    .build()).getId();
+            status.setRollbackOnly();
+        });
+
+        assertThat(events("item", List.of(itemId[0]))).isEmpty();
+    }
+
+    @Test
+    void shouldRetryFailedDeliveryWithBackoffTest() {
+        UserDto owner = user("outbox-retry@test.ru");
+        ItemDto item = item(owner.getId(), "Стремянка");
+        sink.failFor(item.getId());
+        LocalDateTime now = LocalDateTime.now();
+
+        drain(now);
+
+        OutboxEvent failed = events("item", itemIds).getFirst();
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(now);
+        assertThat(failed.getLastError()).contains("Получатель недоступен");
+
+        sink.recover(item.getId());
+        drain(now);
+        assertThat(sink.messagesFor("item", item.getId())).isEmpty();
+
+        drain(now.plusHours(1));
+        assertThat(sink.messagesFor("item", item.getId())).extracting(OutboxMessage::eventType)
+                .containsExactly(OutboxEventType.ITEM_CREATED);
+        assertThat(relay.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(relay.backoff(4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(relay.backoff(40)).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void shouldDeliverAfterCommitOnlyToSinksThatHaveNotAcceptedTest() {
+        UserDto owner = user("outbox-partial@test.ru");
+        ItemDto item = item(owner.getId(), "Тиски");
+        sink.failFor(item.getId());
+        LocalDateTime now = LocalDateTime.now();
+
+        drain(now);
+
+        OutboxEvent failed = events("item", itemIds).getFirst();
+        assertThat(failed.getDeliveredTo()).contains(leaseCheckingSink.name()).doesNotContain(sink.name());
+        assertThat(leaseCheckingSink.leasedUntil(failed.getId())).isAfter(now);
+        assertThat(leaseCheckingSink.deliveredInTransaction()).isFalse();
+
+        sink.recover(item.getId());
+        drain(now.plusHours(1));
+
+        assertThat(sink.messagesFor("item", item.getId())).hasSize(1);
+        assertThat(leaseCheckingSink.deliveries(failed.getId())).isEqualTo(1);
+        assertThat(events("item", itemIds)).isEmpty();
+    }
+
+    // Недоставленные события получают срок повтора позже now и в следующий батч не попадают
+    private void drain(LocalDateTime now) {
+        int taken;
+        do {
+            taken = relay.relayBatch(now);
+        } while (taken > 0);
+    }
+
+    private List<OutboxEvent> events(String aggregateType, List<Long> aggregateIds) {
+        return outboxEventRepository.findByAggregateTypeAndAggregateIdInOrderById(aggregateType, aggregateIds);
+    }
+
+    private UserDto user(String email) {
+        UserDto user = userService.create(UserDto.builder().name("Пользователь").email(email).build());
+        userIds.add(user.getId());
+        return user;
+    }
+
+    private ItemDto item(Long ownerId, String name) {
+        ItemDto item = itemService.create(ownerId, ItemDto.builder()
+                .name(name)
+                .description("Для outbox")
+                .available(true)
+                .build());
+        itemIds.add(item.getId());
+        return item;
+    }
+
+    private BookingDto book(Long bookerId, Long itemId) {
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(itemId);
+        dto.setStart(LocalDateTime.now().minusDays(3));
+        dto.setEnd(LocalDateTime.now().minusDays(2));
+        BookingDto booking = bookingService.create(bookerId, dto);
+        bookingIds.add(booking.getId());
+        return booking;
+    }
+
+    // Смотрит на строку события в момент доставки: транзакции уже нет, а срок повтора сдвинут арендой
+    @TestComponent
+    @RequiredArgsConstructor(onConstructor_ = @Autowired)
+    static class LeaseCheckingOutboxSink implements OutboxSink {
+        private final OutboxEventRepository outboxEventRepository;
+        private final Map<Long, LocalDateTime> leases = new ConcurrentHashMap<>();
+        private final Map<Long, Integer> deliveries = new ConcurrentHashMap<>();
+        private volatile boolean deliveredInTransaction;
+
+        @Override
+        public String name() {
+            return "lease-checking";
+        }
+
+        @Override
+        public void deliver(OutboxMessage message) {
+            deliveredInTransaction |= TransactionSynchronizationManager.isActualTransactionActive();
+            outboxEventRepository.findById(message.id())
+                    .ifPresent(event -> leases.put(message.id(), event.getNextAttemptAt()));
+            deliveries.merge(message.id(), 1, Integer::sum);
+        }
+
+        LocalDateTime leasedUntil(Long eventId) {
+            return leases.get(eventId);
+        }
+
+        int deliveries(Long eventId) {
+            return deliveries.getOrDefault(eventId, 0);
+        }
+
+        boolean deliveredInTransaction() {
+            return deliveredInTransaction;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.boot.test.context.TestComponent;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Локальный получатель для тестов: запоминает доставленные сообщения и роняет доставку для выбранных агрегатов
+@TestComponent
+public class RecordingOutboxSink implements OutboxSink {
+    private final List<OutboxMessage> messages = new CopyOnWriteArrayList<>();
+    private final Set<Long> failing = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public String name() {
+        return "recording";
+    }
+
+    @Override
+    public void deliver(OutboxMessage message) {
+        if (failing.contains(message.aggregateId())) {
+            throw new IllegalStateException("Получатель недоступен");
+        }
+        messages.add(message);
+    }
+
+    public List<OutboxMessage> messagesFor(String aggregateType, Long aggregateId) {
+        return messages.stream()
+                .filter(message -> message.aggregateType().equals(aggregateType)
+                        && message.aggregateId().equals(aggregateId))
+                .toList();
+    }
+
+    public void failFor(Long aggregateId) {
+        failing.add(aggregateId);
+    }
+
+    public void recover(Long aggregateId) {
+        failing.remove(aggregateId);
+    }
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.request.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -11,6 +13,8 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.sql.SqlStatementCountExtension;
+import ru.practicum.shareit.sql.SqlStatementCounter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -23,11 +27,13 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 @AutoConfigureTestDatabase
 @Transactional
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
+@ExtendWith(SqlStatementCountExtension.class)
 class ItemRequestServiceIntegrationTest {
 
     private final ItemRequestService itemRequestService;
     private final UserService userService;
     private final ItemService itemService;
+    private final EntityManager entityManager;
 
     private UserDto user1;
     private UserDto user2;
@@ -118,6 +124,27 @@ class ItemRequestServiceIntegrationTest {
         assertThat(found.getItems().getFirst().getName()).isEqualTo("Циркулярная пила");
     }
 
+    @Test
+    void shouldChangeETagWhenItemAddedToRequestTest() {
+        initUsers();
+
+        ItemRequestDto request = itemRequestService.create(user1.getId(),
+                new ItemRequestCreateDto("Нужна пила"));
+        String before = itemRequestService.getETag(user2.getId(), request.getId());
+
+        assertThat(itemRequestService.getETag(user2.getId(), request.getId())).isEqualTo(before);
+
+        itemService.create(user2.getId(), ItemDto.builder()
+                .name("Циркулярная пила")
+                .description("Мощная")
+                .available(true)
+                .requestId(request.getId())
+                .build());
+        entityManager.flush();
+
+        assertThat(itemRequestService.getETag(user2.getId(), request.getId())).isNotEqualTo(before);
+    }
+
     @Test
     void shouldThrowWhenUserNotFoundTest() {
         assertThatThrownBy(() -> itemRequestService.create(999L, new ItemRequestCreateDto("что-то")))
@@ -167,6 +194,25 @@ class ItemRequestServiceIntegrationTest {
         assertThat(requests.getFirst().getDescription()).isEqualTo("Новый");
     }
 
+    @Test
+    void shouldLoadOwnRequestsWithinQueryBudgetTest(SqlStatementCounter sql) {
+        initUsers();
+        int requestCount = 3;
+        for (int i = 0; i < requestCount; i++) {
+            ItemRequestCreateDto requestDto = new ItemRequestCreateDto();
+            requestDto.setDescription("Запрос " + i);
+            itemRequestService.create(user1.getId(), requestDto);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // пользователь, его запросы и по одному запросу вещей на каждый
+        List<ItemRequestDto> requests = sql.atMost(2 + requestCount,
+                () -> itemRequestService.getOwnRequests(user1.getId()));
+
+        assertThat(requests).hasSize(requestCount);
+    }
+
     private void sleep() {
         try {
             Thread.sleep((long) 10);
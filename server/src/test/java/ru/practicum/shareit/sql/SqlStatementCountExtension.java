@@ -0,0 +1,26 @@
+package ru.practicum.shareit.sql;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+// Внедряет SqlStatementCounter в тестовые методы, чтобы интеграционный тест мог ограничить число запросов
+// вызова сервиса. Нужен считающий DataSource из SqlStatsConfig в контексте
+public class SqlStatementCountExtension implements ParameterResolver, AfterEachCallback {
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == SqlStatementCounter.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return new SqlStatementCounter();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        SqlStatementStats.stop();
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.sql;
+
+import java.util.function.Supplier;
+
+// Бюджет запросов одного вызова сервиса, внедряется SqlStatementCountExtension
+public class SqlStatementCounter {
+
+    public <T> T atMost(int maxStatements, Supplier<T> call) {
+        SqlStatementStats stats = SqlStatementStats.start();
+        T result;
+        try {
+            result = call.get();
+        } finally {
+            SqlStatementStats.stop();
+        }
+        if (stats.getCount() > maxStatements) {
+            throw new AssertionError(String.format(
+                    "Ожидалось не больше %d SQL-запросов, выполнено %d; чаще всего (%d раз): %s",
+                    maxStatements, stats.getCount(), stats.getMostRepeatedCount(), stats.getMostRepeated()));
+        }
+        return result;
+    }
+
+    public void atMost(int maxStatements, Runnable call) {
+        atMost(maxStatements, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
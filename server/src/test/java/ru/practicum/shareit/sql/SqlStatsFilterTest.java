@@ -0,0 +1,59 @@
+package ru.practicum.shareit.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.config.SqlStatsProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private MockHttpServletResponse perform(SqlStatsProperties properties, int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new SqlStatsFilter(properties, registry).doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/{itemId}");
+            for (int i = 0; i < statements; i++) {
+                SqlStatementStats.current().record("select * from items where id=?", 1_000_000);
+            }
+            res.getWriter().write("{}");
+        });
+        return response;
+    }
+
+    @Test
+    void shouldAddHeadersAndRecordMetricsTest() throws Exception {
+        SqlStatsProperties properties = new SqlStatsProperties();
+        properties.setResponseHeaders(true);
+
+        MockHttpServletResponse response = perform(properties, 3);
+
+        assertThat(response.getHeader(SqlStatsFilter.X_SQL_COUNT)).isEqualTo("3");
+        assertThat(response.getHeader(SqlStatsFilter.X_SQL_TIME_MS)).isEqualTo("3");
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+        assertThat(registry.get("shareit.sql.statements").tag("uri", "/items/{itemId}").summary().totalAmount())
+                .isEqualTo(3);
+        assertThat(SqlStatementStats.current()).isNull();
+    }
+
+    @Test
+    void shouldCountWarningsWithoutHeadersByDefaultTest() throws Exception {
+        SqlStatsProperties properties = new SqlStatsProperties();
+        SqlStatsProperties.Endpoint endpoint = new SqlStatsProperties.Endpoint();
+        endpoint.setMethod("GET");
+        endpoint.setPath("/items/{itemId}");
+        endpoint.setWarnThreshold(4);
+        properties.getEndpoints().add(endpoint);
+
+        MockHttpServletResponse response = perform(properties, 5);
+
+        assertThat(response.getHeader(SqlStatsFilter.X_SQL_COUNT)).isNull();
+        assertThat(registry.get("shareit.sql.warnings").tag("reason", "threshold").counter().count()).isEqualTo(1);
+        assertThat(registry.get("shareit.sql.warnings").tag("reason", "repeated").counter().count()).isEqualTo(1);
+    }
+}